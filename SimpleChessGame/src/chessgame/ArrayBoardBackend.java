@@ -0,0 +1,62 @@
+package chessgame;
+
+/**
+ * The class stores the pieces in an 8x8 array indexed by x- and y-coordinate.
+ * This is the original representation of the chessboard and the reference other backends are checked against.
+ */
+public class ArrayBoardBackend implements BoardBackend {
+    /**
+     * A 2D array representing the chessboard.
+     * Each cell contains a ChessPiece or null if the cell is empty.
+     */
+    private final ChessPiece[][] chessBoard = new ChessPiece[8][8];
+
+    @Override
+    public boolean isOnBoard(int x, int y) {
+        return x >= 0 && y >= 0 && x < 8 && y < 8;
+    }
+
+    @Override
+    public boolean isOnBoard(int cell) {
+        // A column off the board leaves a low nibble of 8 or more, a row off the board a high part outside 0 to 7.
+        return isOnBoard(cell & 15, cell >> 4);
+    }
+
+    @Override
+    public ChessPiece getPiece(int x, int y) {
+        return chessBoard[x][y];
+    }
+
+    @Override
+    public ChessPiece getPiece(int cell) {
+        return chessBoard[cell & 7][cell >> 4];
+    }
+
+    @Override
+    public void setPiece(int x, int y, ChessPiece piece) {
+        chessBoard[x][y] = piece;
+    }
+
+    @Override
+    public boolean isPathClear(int startX, int startY, int targetX, int targetY) {
+        int deltaX = Integer.compare(targetX, startX);
+        int deltaY = Integer.compare(targetY, startY);
+        int currentX = startX + deltaX;
+        int currentY = startY + deltaY;
+
+        while (currentX != targetX || currentY != targetY) {
+            if (chessBoard[currentX][currentY] != null) {
+                return false;
+            }
+            currentX += deltaX;
+            currentY += deltaY;
+        }
+
+        return true;
+    }
+
+    @Override
+    public BoardBackend createEmpty() {
+        return new ArrayBoardBackend();
+    }
+}
@@ -0,0 +1,194 @@
+package chessgame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The class checks that a {@link BoardBackend} behaves exactly like the original {@link ArrayBoardBackend}.
+ * <p>
+ * It plays random games on two boards at once, one per backend, and after every move compares:
+ * - the valid moves of the side to move, and those of the array backend against a brute-force list of every
+ *   start and target accepted by {@code isValidMove}, so a bug in the move generator shared by both boards
+ *   is caught as well,
+ * - the result of {@code isValidMove} and {@code getPiece} for random coordinates, including ones off the board,
+ * - the result of {@code playMove} for random, mostly invalid moves,
+ * - the type, owner and coordinates of every piece on the board.
+ * The first difference stops the check with an {@link IllegalStateException} naming the game and seed,
+ * so it can be replayed. The time each backend spent generating moves is printed at the end. Usage:
+ * <pre>
+ * crosscheck [--backend 0x88] [--games N] [--plies N] [--seed S]
+ * </pre>
+ */
+public class BackendCrossCheck {
+    /**
+     * The number of random coordinate probes per move.
+     */
+    private static final int PROBES_PER_PLY = 8;
+
+    /**
+     * The backend checked against the array backend; every game is played on an empty copy of it.
+     */
+    private final BoardBackend backend;
+    /**
+     * The time spent generating moves, indexed 0 for the array backend and 1 for the checked backend.
+     */
+    private final long[] generationNanos = new long[2];
+
+    /**
+     * Constructs a check of a backend.
+     *
+     * @param backend The backend to check; its pieces are not used.
+     */
+    public BackendCrossCheck(BoardBackend backend) {
+        this.backend = backend;
+    }
+
+    public static void main(String[] args) {
+        String backend = "0x88";
+        int games = 1000, plies = 200;
+        long seed = System.nanoTime();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--backend":
+                    backend = args[++i];
+                    break;
+                case "--games":
+                    games = Integer.parseInt(args[++i]);
+                    break;
+                case "--plies":
+                    plies = Integer.parseInt(args[++i]);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        BackendCrossCheck check = new BackendCrossCheck(BoardBackend.named(backend));
+        long moves = 0;
+        for (int game = 0; game < games; game++) {
+            moves += check.playGame(seed + game, plies);
+        }
+        System.out.println("array and " + backend + " agree on " + games + " games, " + moves + " moves (seed " + seed + ")");
+        System.out.println("move generation: array " + check.generationNanos[0] / 1_000_000 + " ms, "
+                + backend + " " + check.generationNanos[1] / 1_000_000 + " ms");
+    }
+
+    /**
+     * Plays one random game on both backends and compares them after every move.
+     *
+     * @param seed  The seed of the random moves; the same seed replays the same game.
+     * @param plies The maximum number of moves of the game.
+     * @return The number of moves played.
+     * @throws IllegalStateException if the backends differ.
+     */
+    public int playGame(long seed, int plies) {
+        Random random = new Random(seed);
+        ChessBoard reference = new ChessBoard(new ArrayBoardBackend());
+        ChessBoard candidate = new ChessBoard(backend.createEmpty());
+        int side = 1;
+        for (int ply = 0; ply < plies; ply++) {
+            compareBoards(reference, candidate, seed, ply);
+            for (int i = 0; i < PROBES_PER_PLY; i++) {
+                int startX = random.nextInt(14) - 3, startY = random.nextInt(14) - 3;
+                int targetX = random.nextInt(14) - 3, targetY = random.nextInt(14) - 3;
+                expect(reference.isValidMove(startX, startY, targetX, targetY) == candidate.isValidMove(startX, startY, targetX, targetY),
+                        seed, ply, "isValidMove(" + startX + ", " + startY + ", " + targetX + ", " + targetY + ")");
+                expect(symbolOf(reference.getPiece(startX, startY)).equals(symbolOf(candidate.getPiece(startX, startY))),
+                        seed, ply, "getPiece(" + startX + ", " + startY + ")");
+            }
+
+            long start = System.nanoTime();
+            List<Move> referenceMoves = reference.legalMoves(side);
+            long middle = System.nanoTime();
+            List<Move> candidateMoves = candidate.legalMoves(side);
+            generationNanos[0] += middle - start;
+            generationNanos[1] += System.nanoTime() - middle;
+            expect(referenceMoves.equals(candidateMoves), seed, ply, "legalMoves " + referenceMoves + " vs " + candidateMoves);
+            List<Move> validMoves = validMoves(reference, side);
+            expect(referenceMoves.equals(validMoves), seed, ply, "legalMoves " + referenceMoves + " vs isValidMove " + validMoves);
+            if (referenceMoves.isEmpty()) {
+                return ply;
+            }
+
+            if (random.nextInt(10) == 0) {
+                Move move = new Move(random.nextInt(8), random.nextInt(8), random.nextInt(8), random.nextInt(8));
+                boolean played = reference.playMove(move, side);
+                expect(played == candidate.playMove(move, side), seed, ply, "playMove " + move);
+                if (played) {
+                    side = -side;
+                }
+                continue;
+            }
+            Move move = referenceMoves.get(random.nextInt(referenceMoves.size()));
+            ChessPiece captured = reference.makeMove(move);
+            expect(symbolOf(captured).equals(symbolOf(candidate.makeMove(move))), seed, ply, "capture of " + move);
+            if (captured instanceof King) {
+                compareBoards(reference, candidate, seed, ply + 1);
+                return ply + 1;
+            }
+            side = -side;
+        }
+        compareBoards(reference, candidate, seed, plies);
+        return plies;
+    }
+
+    /**
+     * Lists every move accepted by {@code isValidMove} for a player by trying all start and target positions,
+     * in the order of {@link ChessBoard#legalMoves(int)}: captures first, then square by square.
+     */
+    private static List<Move> validMoves(ChessBoard board, int side) {
+        List<Move> captures = new ArrayList<>();
+        List<Move> quiet = new ArrayList<>();
+        for (int startX = 0; startX < 8; startX++) {
+            for (int startY = 0; startY < 8; startY++) {
+                ChessPiece piece = board.getPiece(startX, startY);
+                if (piece == null || piece.getOwner() != side) {
+                    continue;
+                }
+                for (int targetX = 0; targetX < 8; targetX++) {
+                    for (int targetY = 0; targetY < 8; targetY++) {
+                        if (board.isValidMove(startX, startY, targetX, targetY)) {
+                            Move move = new Move(startX, startY, targetX, targetY);
+                            (board.getPiece(targetX, targetY) != null ? captures : quiet).add(move);
+                        }
+                    }
+                }
+            }
+        }
+        captures.addAll(quiet);
+        return captures;
+    }
+
+    /**
+     * Compares the type, owner and coordinates of every piece on two boards.
+     */
+    private static void compareBoards(ChessBoard reference, ChessBoard candidate, long seed, int ply) {
+        for (int x = 0; x < 8; x++) {
+            for (int y = 0; y < 8; y++) {
+                ChessPiece expected = reference.getPiece(x, y);
+                ChessPiece actual = candidate.getPiece(x, y);
+                boolean same = expected == null ? actual == null
+                        : actual != null && symbolOf(expected).equals(symbolOf(actual))
+                        && expected.getX() == actual.getX() && expected.getY() == actual.getY();
+                expect(same, seed, ply, "piece at (" + x + ", " + y + ")");
+            }
+        }
+    }
+
+    /**
+     * Describes a piece by its symbol and owner, or "." for no piece.
+     */
+    private static String symbolOf(ChessPiece piece) {
+        return piece == null ? "." : piece.getSymbol() + "" + piece.getOwner();
+    }
+
+    private static void expect(boolean condition, long seed, int ply, String what) {
+        if (!condition) {
+            throw new IllegalStateException("Backends differ in game with seed " + seed + " at ply " + ply + ": " + what);
+        }
+    }
+}
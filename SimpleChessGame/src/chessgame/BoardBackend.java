@@ -0,0 +1,107 @@
+package chessgame;
+
+/**
+ * The interface describes how a {@link ChessBoard} stores its pieces.
+ * <p>
+ * A backend only knows which piece stands on which cell; all rules stay in {@link ChessBoard} and the piece
+ * classes. This lets the board representation be exchanged for one that is faster for a given workload,
+ * while {@link BackendCrossCheck} proves that a new backend behaves exactly like the original one.
+ * <p>
+ * Cells are addressed by x-coordinate (column) and y-coordinate (row), both 0 to 7 on the board, or by
+ * cell number (see {@link #cellOf(int, int)}). Cell numbers let move generation walk the board by adding a
+ * constant step instead of updating two coordinates and testing both.
+ */
+public interface BoardBackend {
+    /**
+     * Checks whether a position lies on the chessboard. Must accept any coordinates.
+     *
+     * @param x The x-coordinate of the position.
+     * @param y The y-coordinate of the position.
+     * @return {@code true} if the position is on the board, {@code false} otherwise.
+     */
+    boolean isOnBoard(int x, int y);
+
+    /**
+     * Checks whether a cell number belongs to a position on the chessboard. Must accept the cell number of
+     * any position up to 7 columns and 7 rows off the board.
+     *
+     * @param cell The cell number.
+     * @return {@code true} if the cell is on the board, {@code false} otherwise.
+     */
+    boolean isOnBoard(int cell);
+
+    /**
+     * Returns the piece on a cell.
+     *
+     * @param x The x-coordinate of a position on the board.
+     * @param y The y-coordinate of a position on the board.
+     * @return The piece on the cell, or null if the cell is empty.
+     */
+    ChessPiece getPiece(int x, int y);
+
+    /**
+     * Returns the piece on a cell.
+     *
+     * @param cell The number of a cell on the board.
+     * @return The piece on the cell, or null if the cell is empty.
+     */
+    ChessPiece getPiece(int cell);
+
+    /**
+     * Places a piece on a cell, or empties it.
+     *
+     * @param x     The x-coordinate of a position on the board.
+     * @param y     The y-coordinate of a position on the board.
+     * @param piece The piece to place, or null to empty the cell.
+     */
+    void setPiece(int x, int y, ChessPiece piece);
+
+    /**
+     * Checks whether all cells strictly between two positions on the same row, column or diagonal are empty.
+     *
+     * @param startX  The x-coordinate of the starting position.
+     * @param startY  The y-coordinate of the starting position.
+     * @param targetX The x-coordinate of the target position.
+     * @param targetY The y-coordinate of the target position.
+     * @return {@code true} if the path is clear, {@code false} otherwise.
+     */
+    boolean isPathClear(int startX, int startY, int targetX, int targetY);
+
+    /**
+     * Creates an empty backend of the same type.
+     *
+     * @return A new backend without pieces.
+     */
+    BoardBackend createEmpty();
+
+    /**
+     * Computes the cell number of a position, {@code y * 16 + x}. The same method computes the step between
+     * two positions: the cell of (x + deltaX, y + deltaY) is {@code cellOf(x, y) + cellOf(deltaX, deltaY)}.
+     * For a position on the board, the x-coordinate is {@code cell & 7} and the y-coordinate {@code cell >> 4}.
+     *
+     * @param x The x-coordinate of the position, or the column step.
+     * @param y The y-coordinate of the position, or the row step.
+     * @return The cell number, or the step.
+     */
+    static int cellOf(int x, int y) {
+        return (y << 4) + x;
+    }
+
+    /**
+     * Creates an empty backend by name.
+     *
+     * @param name "array" for {@link ArrayBoardBackend} or "0x88" for {@link Mailbox0x88Backend}.
+     * @return A new backend without pieces.
+     * @throws IllegalArgumentException if the name is unknown.
+     */
+    static BoardBackend named(String name) {
+        switch (name) {
+            case "array":
+                return new ArrayBoardBackend();
+            case "0x88":
+                return new Mailbox0x88Backend();
+            default:
+                throw new IllegalArgumentException("Unknown board backend: " + name);
+        }
+    }
+}
@@ -13,56 +13,171 @@ import java.util.List;
  * - Retrieve all pieces currently in play.
  * - Print the current state of the board.
  * - Move pieces according to chess rules, including validating movements and capturing opponent pieces.
+ * <p>
+ * The pieces are stored in a {@link BoardBackend}; by default the {@link ArrayBoardBackend}.
  */
 
 public class ChessBoard {
     /**
-     * A 2D array representing the chessboard.
-     * Each cell contains a ChessPiece or null if the cell is empty.
+     * The cell steps along the rows, columns and diagonals; every piece except the Knights moves along them.
+     */
+    private static final int[] LINE_STEPS = {
+            BoardBackend.cellOf(1, 0), BoardBackend.cellOf(-1, 0), BoardBackend.cellOf(0, 1), BoardBackend.cellOf(0, -1),
+            BoardBackend.cellOf(1, 1), BoardBackend.cellOf(1, -1), BoardBackend.cellOf(-1, 1), BoardBackend.cellOf(-1, -1)};
+    /**
+     * The cell steps of the Knights' jumps.
      */
-    private final ChessPiece[][] chessBoard;
+    private static final int[] KNIGHT_STEPS = {
+            BoardBackend.cellOf(1, 2), BoardBackend.cellOf(2, 1), BoardBackend.cellOf(2, -1), BoardBackend.cellOf(1, -2),
+            BoardBackend.cellOf(-1, -2), BoardBackend.cellOf(-2, -1), BoardBackend.cellOf(-2, 1), BoardBackend.cellOf(-1, 2)};
+
+    /**
+     * The storage of the pieces. All access to the cells of the board goes through it.
+     */
+    private final BoardBackend backend;
 
     /**
      * Constructs a new ChessBoard and initializes it with the default piece placement.
      */
 
     public ChessBoard() {
-        this.chessBoard = new ChessPiece[8][8];
+        this(new ArrayBoardBackend());
+    }
+
+    /**
+     * Constructs a new ChessBoard that stores its pieces in the given backend,
+     * and initializes it with the default piece placement.
+     *
+     * @param backend An empty backend to store the pieces in.
+     */
+    public ChessBoard(BoardBackend backend) {
+        this.backend = backend;
         initializeBoard();
     }
 
+    /**
+     * Constructs an independent copy of another ChessBoard, using the same type of backend.
+     * Every piece is duplicated, so moves made on the copy never affect the original board.
+     *
+     * @param other The board to copy.
+     */
+    public ChessBoard(ChessBoard other) {
+        this.backend = other.backend.createEmpty();
+        for (int i = 0; i < 8; i++) {
+            for (int j = 0; j < 8; j++) {
+                ChessPiece piece = other.backend.getPiece(i, j);
+                if (piece != null) {
+                    backend.setPiece(i, j, ChessPiece.create(piece.getSymbol(), piece.getOwner(), piece.getX(), piece.getY()));
+                }
+            }
+        }
+    }
+
     /**
      * Initializes the chessboard with the default starting positions for all pieces.
      * Player 1's pieces are placed on rows 0 and 1, and Player -1's pieces are placed on rows 6 and 7.
      * Pawns are placed on rows 1 and 6, while the back rank pieces are placed in the standard order.
      */
     public void initializeBoard() {
-        chessBoard[0][0] = new Rooks(1, 0, 0);
-        chessBoard[1][0] = new Knights(1, 1, 0);
-        chessBoard[2][0] = new Bishops(1, 2, 0);
-        chessBoard[3][0] = new King(1, 3, 0);
-        chessBoard[4][0] = new Queen(1, 4, 0);
-        chessBoard[5][0] = new Bishops(1, 6, 0);
-        chessBoard[6][0] = new Knights(1, 7, 0);
-        chessBoard[7][0] = new Rooks(1, 8, 0);
+        backend.setPiece(0, 0, new Rooks(1, 0, 0));
+        backend.setPiece(1, 0, new Knights(1, 1, 0));
+        backend.setPiece(2, 0, new Bishops(1, 2, 0));
+        backend.setPiece(3, 0, new King(1, 3, 0));
+        backend.setPiece(4, 0, new Queen(1, 4, 0));
+        backend.setPiece(5, 0, new Bishops(1, 5, 0));
+        backend.setPiece(6, 0, new Knights(1, 6, 0));
+        backend.setPiece(7, 0, new Rooks(1, 7, 0));
         for (int i = 0; i < 8; i++) {
-            chessBoard[i][1] = new Pawns(1, i, 1);
+            backend.setPiece(i, 1, new Pawns(1, i, 1));
 
         }
-        chessBoard[0][7] = new Rooks(-1, 0, 7);
-        chessBoard[1][7] = new Knights(-1, 1, 7);
-        chessBoard[2][7] = new Bishops(-1, 2, 7);
-        chessBoard[3][7] = new King(-1, 3, 7);
-        chessBoard[4][7] = new Queen(-1, 4, 7);
-        chessBoard[5][7] = new Bishops(-1, 6, 7);
-        chessBoard[6][7] = new Knights(-1, 7, 7);
-        chessBoard[7][7] = new Rooks(-1, 8, 7);
+        backend.setPiece(0, 7, new Rooks(-1, 0, 7));
+        backend.setPiece(1, 7, new Knights(-1, 1, 7));
+        backend.setPiece(2, 7, new Bishops(-1, 2, 7));
+        backend.setPiece(3, 7, new King(-1, 3, 7));
+        backend.setPiece(4, 7, new Queen(-1, 4, 7));
+        backend.setPiece(5, 7, new Bishops(-1, 5, 7));
+        backend.setPiece(6, 7, new Knights(-1, 6, 7));
+        backend.setPiece(7, 7, new Rooks(-1, 7, 7));
         for (int i = 0; i < 8; i++) {
-            chessBoard[i][6] = new Pawns(-1, i, 6);
+            backend.setPiece(i, 6, new Pawns(-1, i, 6));
         }
 
     }
 
+    /**
+     * Replaces all pieces on the chessboard with the ones described by the piece placement field of FEN.
+     * <p>
+     * The placement lists the ranks from 8 down to 1, separated by '/'. Within a rank, files run from a to h:
+     * a letter is a piece (upper case for Player 1, lower case for Player -1) and a digit skips that many empty cells.
+     * Files a to h are x-coordinates 0 to 7, ranks 1 to 8 are y-coordinates 0 to 7.
+     * The board is left unchanged if the placement is malformed.
+     *
+     * @param placement The piece placement, for example "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR".
+     * @throws IllegalArgumentException if the placement is malformed.
+     */
+    public void loadPlacement(String placement) {
+        String[] ranks = placement.split("/");
+        if (ranks.length != 8) {
+            throw new IllegalArgumentException("Placement needs 8 ranks: " + placement);
+        }
+        ChessPiece[][] pieces = new ChessPiece[8][8];
+        for (int i = 0; i < 8; i++) {
+            int y = 7 - i;
+            int x = 0;
+            for (char c : ranks[i].toCharArray()) {
+                if (c >= '1' && c <= '8') {
+                    x += c - '0';
+                } else if (x < 8) {
+                    pieces[x][y] = ChessPiece.create(Character.toUpperCase(c), Character.isUpperCase(c) ? 1 : -1, x, y);
+                    x++;
+                } else {
+                    x++;
+                    break;
+                }
+            }
+            if (x != 8) {
+                throw new IllegalArgumentException("Rank " + (y + 1) + " does not have 8 files: " + placement);
+            }
+        }
+        for (int x = 0; x < 8; x++) {
+            for (int y = 0; y < 8; y++) {
+                backend.setPiece(x, y, pieces[x][y]);
+            }
+        }
+    }
+
+    /**
+     * Describes the pieces on the chessboard in the piece placement field of FEN.
+     *
+     * @return The piece placement, in the format read by {@link #loadPlacement(String)}.
+     */
+    public String toPlacement() {
+        StringBuilder placement = new StringBuilder();
+        for (int y = 7; y >= 0; y--) {
+            int empty = 0;
+            for (int x = 0; x < 8; x++) {
+                ChessPiece piece = backend.getPiece(x, y);
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    placement.append(empty);
+                    empty = 0;
+                }
+                placement.append(piece.getOwner() == 1 ? piece.getSymbol() : Character.toLowerCase(piece.getSymbol()));
+            }
+            if (empty > 0) {
+                placement.append(empty);
+            }
+            if (y > 0) {
+                placement.append('/');
+            }
+        }
+        return placement.toString();
+    }
+
     /**
      * Retrieves all pieces currently in play on the chessboard.
      *
@@ -73,8 +188,8 @@ public class ChessBoard {
         List<ChessPiece> pieces = new ArrayList<>();
         for (int i = 0; i < 8; i++) {
             for (int j = 0; j < 8; j++) {
-                if (chessBoard[i][j] != null) {
-                    pieces.add(chessBoard[i][j]);
+                if (backend.getPiece(i, j) != null) {
+                    pieces.add(backend.getPiece(i, j));
                 }
             }
         }
@@ -114,7 +229,7 @@ public class ChessBoard {
             return;
         }
 
-        System.out.print((chessBoard[column][row] != null ? chessBoard[column][row].getSymbol() : ".") + " ");
+        System.out.print((backend.getPiece(column, row) != null ? backend.getPiece(column, row).getSymbol() : ".") + " ");
         printCellRecursive(row, column + 1);
     }
 
@@ -130,24 +245,10 @@ public class ChessBoard {
      */
     private boolean isPathClear(int startX, int startY, int targetX, int targetY) {
         // Knights can jump over pieces, so we don't need to check their path
-        if (chessBoard[startX][startY] instanceof Knights) {
+        if (backend.getPiece(startX, startY) instanceof Knights) {
             return true;
         }
-
-        int deltaX = Integer.compare(targetX, startX);
-        int deltaY = Integer.compare(targetY, startY);
-        int currentX = startX + deltaX;
-        int currentY = startY + deltaY;
-
-        while (currentX != targetX || currentY != targetY) {
-            if (chessBoard[currentX][currentY] != null) {
-                return false;
-            }
-            currentX += deltaX;
-            currentY += deltaY;
-        }
-
-        return true;
+        return backend.isPathClear(startX, startY, targetX, targetY);
     }
 
     /**
@@ -168,31 +269,167 @@ public class ChessBoard {
      */
 
     public boolean movePiece(int startX, int startY, int targetX, int targetY) {
-        if (startX < 0 || startY < 0 || startY >= 8 || startX >= 8 || chessBoard[startX][startY] == null) {
+        if (!isValidMove(startX, startY, targetX, targetY)) {
             return false;
         }
-        ChessPiece piece = chessBoard[startX][startY];
-        if (targetX < 0 || targetY < 0 || targetX >= 8 || targetY >= 8) {
+        if (backend.getPiece(targetX, targetY) != null) {
+            System.out.println("Piece captured: " + backend.getPiece(targetX, targetY).getSymbol());
+        }
+        makeMove(new Move(startX, startY, targetX, targetY));
+        return true;
+    }
+
+    /**
+     * Plays a move for the given player without printing anything.
+     * The move is only made if the moving piece belongs to the player and the move is valid.
+     *
+     * @param move  The move to play.
+     * @param owner The player making the move (-1 for black, 1 for white).
+     * @return true if the move was made, false otherwise.
+     */
+    public boolean playMove(Move move, int owner) {
+        ChessPiece piece = getPiece(move.getStartX(), move.getStartY());
+        if (piece == null || piece.getOwner() != owner
+                || !isValidMove(move.getStartX(), move.getStartY(), move.getTargetX(), move.getTargetY())) {
+            return false;
+        }
+        makeMove(move);
+        return true;
+    }
+
+    /**
+     * Checks whether a move would be accepted by {@link #movePiece(int, int, int, int)} without making it.
+     *
+     * @param startX  The x-coordinate of the starting position.
+     * @param startY  The y-coordinate of the starting position.
+     * @param targetX The x-coordinate of the target position.
+     * @param targetY The y-coordinate of the target position.
+     * @return true if the move is valid, false otherwise.
+     */
+    public boolean isValidMove(int startX, int startY, int targetX, int targetY) {
+        if (!backend.isOnBoard(startX, startY) || backend.getPiece(startX, startY) == null) {
+            return false;
+        }
+        ChessPiece piece = backend.getPiece(startX, startY);
+        if (!backend.isOnBoard(targetX, targetY)) {
             return false;
         }
-        if (!chessBoard[startX][startY].canMove(targetX, targetY)) {
+        if (!piece.canMove(targetX, targetY)) {
             return false;
         }
         if (!isPathClear(startX, startY, targetX, targetY)) {
             return false;
         }
-        if (chessBoard[targetX][targetY] != null) {
-            if (chessBoard[targetX][targetY].getOwner() == piece.getOwner()) {
-                return false;
-            } else {
-                System.out.println("Piece captured: " + chessBoard[targetX][targetY].getSymbol());
+        ChessPiece target = backend.getPiece(targetX, targetY);
+        return target == null || target.getOwner() != piece.getOwner();
+    }
+
+    /**
+     * Returns the piece at the given position.
+     *
+     * @param x The x-coordinate of the position.
+     * @param y The y-coordinate of the position.
+     * @return The piece at the position, or null if the cell is empty or outside the board.
+     */
+    public ChessPiece getPiece(int x, int y) {
+        if (!backend.isOnBoard(x, y)) {
+            return null;
+        }
+        return backend.getPiece(x, y);
+    }
+
+    /**
+     * Generates every valid move for the given player.
+     * Moves are listed square by square, captures first, so searches see the most forcing moves early.
+     * <p>
+     * Instead of trying all 64 targets, the targets are found by adding steps to the cell number of the piece:
+     * a Knight tries its eight jumps, every other piece walks the eight lines until it leaves the board or
+     * reaches a piece. This gives exactly the moves {@link #isValidMove(int, int, int, int)} accepts.
+     *
+     * @param owner The player to generate moves for (-1 for black, 1 for white).
+     * @return A list of all moves the player can make.
+     */
+    public List<Move> legalMoves(int owner) {
+        List<Move> captures = new ArrayList<>();
+        List<Move> quiet = new ArrayList<>();
+        for (int startX = 0; startX < 8; startX++) {
+            for (int startY = 0; startY < 8; startY++) {
+                ChessPiece piece = backend.getPiece(startX, startY);
+                if (piece == null || piece.getOwner() != owner) {
+                    continue;
+                }
+                // One bit per target, x * 8 + y, so the moves come out in the same order as the squares.
+                long captureTargets = 0;
+                long quietTargets = 0;
+                boolean jumps = piece instanceof Knights;
+                int start = BoardBackend.cellOf(startX, startY);
+                for (int step : jumps ? KNIGHT_STEPS : LINE_STEPS) {
+                    for (int cell = start + step; backend.isOnBoard(cell); cell += step) {
+                        ChessPiece target = backend.getPiece(cell);
+                        int targetX = cell & 7;
+                        int targetY = cell >> 4;
+                        if (target == null) {
+                            if (piece.canMove(targetX, targetY)) {
+                                quietTargets |= 1L << (targetX * 8 + targetY);
+                            }
+                        } else if (target.getOwner() != owner && piece.canMove(targetX, targetY)) {
+                            captureTargets |= 1L << (targetX * 8 + targetY);
+                        }
+                        if (jumps || target != null) {
+                            break;
+                        }
+                    }
+                }
+                addMoves(startX, startY, captureTargets, captures);
+                addMoves(startX, startY, quietTargets, quiet);
             }
         }
+        captures.addAll(quiet);
+        return captures;
+    }
 
-        chessBoard[targetX][targetY] = piece;
-        chessBoard[startX][startY] = null;
-        piece.setPosition(targetX, targetY);
-        return true;
+    /**
+     * Adds a move from a start position to every target in a set of targets.
+     *
+     * @param startX  The x-coordinate of the starting position.
+     * @param startY  The y-coordinate of the starting position.
+     * @param targets The targets, bit {@code x * 8 + y} for position (x, y).
+     * @param moves   The list to add the moves to.
+     */
+    private static void addMoves(int startX, int startY, long targets, List<Move> moves) {
+        for (; targets != 0; targets &= targets - 1) {
+            int square = Long.numberOfTrailingZeros(targets);
+            moves.add(new Move(startX, startY, square >> 3, square & 7));
+        }
+    }
+
+    /**
+     * Makes a move without validating it or printing anything.
+     * Used by searches, which validate moves once while generating them.
+     *
+     * @param move The move to make.
+     * @return The captured piece, or null if the target cell was empty.
+     */
+    ChessPiece makeMove(Move move) {
+        ChessPiece piece = backend.getPiece(move.getStartX(), move.getStartY());
+        ChessPiece captured = backend.getPiece(move.getTargetX(), move.getTargetY());
+        backend.setPiece(move.getTargetX(), move.getTargetY(), piece);
+        backend.setPiece(move.getStartX(), move.getStartY(), null);
+        piece.setPosition(move.getTargetX(), move.getTargetY());
+        return captured;
+    }
+
+    /**
+     * Takes back a move made with {@link #makeMove(Move)}.
+     *
+     * @param move     The move to take back.
+     * @param captured The piece returned by {@code makeMove}, or null if nothing was captured.
+     */
+    void unmakeMove(Move move, ChessPiece captured) {
+        ChessPiece piece = backend.getPiece(move.getTargetX(), move.getTargetY());
+        backend.setPiece(move.getStartX(), move.getStartY(), piece);
+        backend.setPiece(move.getTargetX(), move.getTargetY(), captured);
+        piece.setPosition(move.getStartX(), move.getStartY());
     }
 
 }
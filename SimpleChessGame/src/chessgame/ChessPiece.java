@@ -61,6 +61,35 @@ public abstract class ChessPiece {
         this.y = y;
     }
 
+    /**
+     * Creates a chess piece of the type identified by its symbol.
+     *
+     * @param symbol The symbol of the piece ('K', 'Q', 'R', 'B', 'N' or 'P').
+     * @param owner  The owner of the piece (-1 for black, 1 for white).
+     * @param x      The x-coordinate of the piece's position.
+     * @param y      The y-coordinate of the piece's position.
+     * @return A new piece of the matching type.
+     * @throws IllegalArgumentException if the symbol does not name a piece type.
+     */
+    static ChessPiece create(char symbol, int owner, int x, int y) {
+        switch (symbol) {
+            case 'K':
+                return new King(owner, x, y);
+            case 'Q':
+                return new Queen(owner, x, y);
+            case 'R':
+                return new Rooks(owner, x, y);
+            case 'B':
+                return new Bishops(owner, x, y);
+            case 'N':
+                return new Knights(owner, x, y);
+            case 'P':
+                return new Pawns(owner, x, y);
+            default:
+                throw new IllegalArgumentException("Unknown piece symbol: " + symbol);
+        }
+    }
+
     /**
      * Returns the value of the piece.
      *
@@ -0,0 +1,111 @@
+package chessgame;
+
+/**
+ * The class describes one side of a self-play match: a name and the limits its searches run under.
+ * <p>
+ * Configurations are written as comma-separated settings, for example {@code "depth=3"},
+ * {@code "movetime=50"} or {@code "movetime=100,nodes=20000"}. The settings are:
+ * - {@code depth}: the deepest iteration to search.
+ * - {@code movetime}: the time per move in milliseconds.
+ * - {@code nodes}: the number of positions per move.
+ * - {@code name}: the name used in reports; defaults to the configuration text itself.
+ */
+public final class EngineConfig {
+    /**
+     * The name used in reports.
+     */
+    private final String name;
+    /**
+     * The limits every search of this configuration runs under.
+     */
+    private final SearchLimits limits;
+
+    /**
+     * Constructs a configuration.
+     *
+     * @param name   The name used in reports.
+     * @param limits The limits every search runs under.
+     */
+    public EngineConfig(String name, SearchLimits limits) {
+        this.name = name;
+        this.limits = limits;
+    }
+
+    /**
+     * Parses a configuration from its comma-separated settings.
+     *
+     * @param text The settings, for example {@code "depth=3,nodes=5000"}.
+     * @return The parsed configuration.
+     * @throws IllegalArgumentException if a setting is unknown or its value is not a number.
+     */
+    public static EngineConfig parse(String text) {
+        String name = text;
+        int depth = 0;
+        long moveTime = 0, nodes = 0;
+        for (String setting : text.split(",")) {
+            String[] parts = setting.split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Setting without value: " + setting);
+            }
+            try {
+                switch (parts[0].trim()) {
+                    case "name":
+                        name = parts[1].trim();
+                        break;
+                    case "depth":
+                        depth = Integer.parseInt(parts[1].trim());
+                        break;
+                    case "movetime":
+                        moveTime = Long.parseLong(parts[1].trim());
+                        break;
+                    case "nodes":
+                        nodes = Long.parseLong(parts[1].trim());
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown setting: " + parts[0]);
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Not a number in setting: " + setting, e);
+            }
+        }
+        if (depth <= 0 && moveTime <= 0 && nodes <= 0) {
+            throw new IllegalArgumentException("Configuration needs a depth, movetime or nodes limit: " + text);
+        }
+        SearchLimits limits = moveTime > 0 ? SearchLimits.moveTime(moveTime) : SearchLimits.depth(SearchLimits.MAX_DEPTH);
+        if (depth > 0) {
+            limits = limits.withMaxDepth(depth);
+        }
+        if (nodes > 0) {
+            limits = limits.withMaxNodes(nodes);
+        }
+        return new EngineConfig(name, limits);
+    }
+
+    /**
+     * Returns the name used in reports.
+     *
+     * @return The name of the configuration.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the limits every search of this configuration runs under.
+     *
+     * @return The search limits.
+     */
+    public SearchLimits getLimits() {
+        return limits;
+    }
+
+    /**
+     * Checks whether this configuration always plays the same move in the same position.
+     * This is the case when the search is bounded by depth or nodes only, not by time.
+     *
+     * @return {@code true} if the configuration has no time limit, {@code false} otherwise.
+     */
+    public boolean isDeterministic() {
+        return limits.getSoftTimeMillis() == 0 && limits.getHardTimeMillis() == 0;
+    }
+}
@@ -0,0 +1,111 @@
+package chessgame;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The class represents one position of an EPD (Extended Position Description) test suite.
+ * <p>
+ * An EPD line starts with four fields: the piece placement as in FEN, the side to move ('w' or 'b'),
+ * the castling rights and the en passant square. The last two are read but ignored, as the game does not
+ * know these rules. They are followed by operations, each an opcode with optional operands ended by ';',
+ * for example {@code bm b2b4; id "test 1";}. Moves in operands are written in coordinate notation.
+ */
+public final class EpdPosition {
+    /**
+     * The piece placement, as read by {@link ChessBoard#loadPlacement(String)}.
+     */
+    private final String placement;
+    /**
+     * The player to move (-1 for black, 1 for white).
+     */
+    private final int sideToMove;
+    /**
+     * The operations by opcode, in the order they appear. Operands keep their quotes removed.
+     */
+    private final Map<String, String> operations;
+
+    private EpdPosition(String placement, int sideToMove, Map<String, String> operations) {
+        this.placement = placement;
+        this.sideToMove = sideToMove;
+        this.operations = operations;
+    }
+
+    /**
+     * Parses one EPD line.
+     *
+     * @param line The EPD line.
+     * @return The parsed position.
+     * @throws IllegalArgumentException if the line does not start with the four position fields.
+     */
+    public static EpdPosition parse(String line) {
+        String[] fields = line.trim().split("\\s+", 5);
+        if (fields.length < 4) {
+            throw new IllegalArgumentException("EPD line needs 4 position fields: " + line);
+        }
+        int side;
+        if (fields[1].equals("w")) {
+            side = 1;
+        } else if (fields[1].equals("b")) {
+            side = -1;
+        } else {
+            throw new IllegalArgumentException("Side to move must be 'w' or 'b': " + fields[1]);
+        }
+
+        Map<String, String> operations = new LinkedHashMap<>();
+        if (fields.length == 5) {
+            for (String operation : fields[4].split(";")) {
+                String trimmed = operation.trim();
+                if (trimmed.isEmpty()) {
+                    continue;
+                }
+                String[] parts = trimmed.split("\\s+", 2);
+                String operand = parts.length > 1 ? parts[1].trim() : "";
+                if (operand.length() >= 2 && operand.startsWith("\"") && operand.endsWith("\"")) {
+                    operand = operand.substring(1, operand.length() - 1);
+                }
+                operations.put(parts[0], operand);
+            }
+        }
+        return new EpdPosition(fields[0], side, Collections.unmodifiableMap(operations));
+    }
+
+    /**
+     * Sets up the position on a board, replacing all pieces on it.
+     *
+     * @param board The board to set up.
+     * @throws IllegalArgumentException if the piece placement is malformed.
+     */
+    public void setUp(ChessBoard board) {
+        board.loadPlacement(placement);
+    }
+
+    /**
+     * Returns the piece placement.
+     *
+     * @return The piece placement in FEN format.
+     */
+    public String getPlacement() {
+        return placement;
+    }
+
+    /**
+     * Returns the player to move.
+     *
+     * @return The player to move (-1 for black, 1 for white).
+     */
+    public int getSideToMove() {
+        return sideToMove;
+    }
+
+    /**
+     * Returns the operand of an operation.
+     *
+     * @param opcode The opcode, for example "bm" or "id".
+     * @return The operand, an empty string for an operation without operands, or null if the operation is missing.
+     */
+    public String getOperation(String opcode) {
+        return operations.get(opcode);
+    }
+}
@@ -0,0 +1,381 @@
+package chessgame;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The class runs every position of an EPD test suite through the engine, spread over all cores.
+ * <p>
+ * Positions are streamed from the input file and handed to a work-stealing pool, so a suite of any size
+ * needs only as much memory as the positions currently in flight. Each worker thread keeps one board that it
+ * sets up again for every position. One of three jobs is run per position:
+ * - {@code search}: searches for the best move under the given limits, and if the position has a
+ *   {@code bm} operation, checks whether the best move is among the expected ones.
+ * - {@code perft}: counts the move sequences of the given depth, and if the position has a
+ *   {@code D<depth>} operation, checks the count against it. The movetime limit bounds the count as well.
+ * - {@code legal}: checks that each side has exactly one King, that no Pawn stands on the first or last
+ *   rank, and that every move in a {@code bm} operation is valid.
+ * <p>
+ * One CSV row is written per position as soon as it is finished, so rows may be out of input order.
+ * A summary with the throughput and the distribution of the time per position is printed at the end. Usage:
+ * <pre>
+ * epd &lt;suite.epd&gt; &lt;results.csv&gt; [--mode search|perft|legal] [--depth N] [--movetime MS] [--nodes N]
+ *     [--threads N] [--backend array|0x88]
+ * </pre>
+ */
+public class EpdRunner {
+    /**
+     * The number of positions queued per worker thread before reading more of the input waits.
+     */
+    private static final int QUEUED_PER_THREAD = 64;
+    /**
+     * The number of perft nodes counted between two checks of the clock. Must be a power of two.
+     */
+    private static final int PERFT_CHECK_INTERVAL = 4096;
+
+    /**
+     * The job run per position: "search", "perft" or "legal".
+     */
+    private final String mode;
+    /**
+     * The depth of searches and perft counts.
+     */
+    private final int depth;
+    /**
+     * The limits every search runs under.
+     */
+    private final SearchLimits limits;
+    /**
+     * The time limit per position in milliseconds, or 0 if there is none.
+     */
+    private final long moveTimeMillis;
+    /**
+     * The board each worker thread sets up for its positions.
+     */
+    private final ThreadLocal<ChessBoard> boards;
+
+    /**
+     * Constructs a runner.
+     *
+     * @param mode           The job run per position: "search", "perft" or "legal".
+     * @param depth          The depth of searches and perft counts, or 0 for no depth limit on searches.
+     * @param moveTimeMillis The time limit per position in milliseconds, or 0 if there is none.
+     * @param nodes          The node limit per search, or 0 if there is none.
+     * @param backend        The board backend; every worker thread gets an empty copy of it.
+     */
+    public EpdRunner(String mode, int depth, long moveTimeMillis, long nodes, BoardBackend backend) {
+        if (!mode.equals("search") && !mode.equals("perft") && !mode.equals("legal")) {
+            throw new IllegalArgumentException("Unknown mode: " + mode);
+        }
+        if (mode.equals("perft") && depth <= 0) {
+            throw new IllegalArgumentException("Perft needs a depth");
+        }
+        if (mode.equals("search") && depth <= 0 && moveTimeMillis <= 0 && nodes <= 0) {
+            throw new IllegalArgumentException("Search needs a depth, movetime or nodes limit");
+        }
+        SearchLimits searchLimits = moveTimeMillis > 0 ? SearchLimits.moveTime(moveTimeMillis) : SearchLimits.depth(SearchLimits.MAX_DEPTH);
+        if (depth > 0) {
+            searchLimits = searchLimits.withMaxDepth(depth);
+        }
+        this.mode = mode;
+        this.depth = depth;
+        this.limits = searchLimits.withMaxNodes(nodes);
+        this.moveTimeMillis = moveTimeMillis;
+        this.boards = ThreadLocal.withInitial(() -> new ChessBoard(backend.createEmpty()));
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            System.err.println("Usage: epd <suite.epd> <results.csv> [--mode search|perft|legal] [--depth N]"
+                    + " [--movetime MS] [--nodes N] [--threads N] [--backend array|0x88]");
+            return;
+        }
+        String mode = "search";
+        int depth = 0;
+        long moveTime = 0, nodes = 0;
+        int threads = Runtime.getRuntime().availableProcessors();
+        BoardBackend backend = new ArrayBoardBackend();
+        for (int i = 2; i < args.length; i++) {
+            switch (args[i]) {
+                case "--mode":
+                    mode = args[++i];
+                    break;
+                case "--depth":
+                    depth = Integer.parseInt(args[++i]);
+                    break;
+                case "--movetime":
+                    moveTime = Long.parseLong(args[++i]);
+                    break;
+                case "--nodes":
+                    nodes = Long.parseLong(args[++i]);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "--backend":
+                    backend = BoardBackend.named(args[++i]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        new EpdRunner(mode, depth, moveTime, nodes, backend).run(Paths.get(args[0]), Paths.get(args[1]), threads);
+    }
+
+    /**
+     * Runs every position of a suite and writes one CSV row per position, then prints a summary.
+     *
+     * @param suiteFile   The EPD file to read, one position per line.
+     * @param resultsFile The file to write the results to.
+     * @param threads     The number of worker threads.
+     * @throws IOException          if the suite cannot be read or the results cannot be written.
+     * @throws InterruptedException if the calling thread is interrupted while waiting for positions.
+     */
+    public void run(Path suiteFile, Path resultsFile, int threads) throws IOException, InterruptedException {
+        ExecutorService pool = Executors.newWorkStealingPool(threads);
+        Semaphore queued = new Semaphore(threads * QUEUED_PER_THREAD);
+        LatencyRecorder latencies = new LatencyRecorder();
+        AtomicLong passed = new AtomicLong(), failed = new AtomicLong(), nodes = new AtomicLong();
+        long startNanos = System.nanoTime();
+
+        try (BufferedReader reader = Files.newBufferedReader(suiteFile, StandardCharsets.UTF_8);
+             BufferedWriter writer = Files.newBufferedWriter(resultsFile, StandardCharsets.UTF_8);
+             PrintWriter csv = new PrintWriter(writer)) {
+            csv.println("line,id,status,result,nodes,micros");
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String text = line;
+                int number = lineNumber;
+                queued.acquire();
+                pool.execute(() -> {
+                    try {
+                        long positionStart = System.nanoTime();
+                        Outcome outcome = runPosition(text);
+                        long micros = (System.nanoTime() - positionStart) / 1000;
+                        latencies.record(micros);
+                        nodes.addAndGet(outcome.nodes);
+                        (outcome.status.equals("ok") ? passed : failed).incrementAndGet();
+                        String row = number + "," + quote(outcome.id) + "," + outcome.status + "," + quote(outcome.result)
+                                + "," + outcome.nodes + "," + micros;
+                        synchronized (csv) {
+                            csv.println(row);
+                        }
+                    } finally {
+                        queued.release();
+                    }
+                });
+            }
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            // PrintWriter swallows write errors; checkError() flushes and reports them.
+            if (csv.checkError()) {
+                throw new IOException("Cannot write results to " + resultsFile);
+            }
+        }
+
+        long elapsedMillis = Math.max(1, (System.nanoTime() - startNanos) / 1_000_000);
+        long positions = latencies.count();
+        System.out.printf(Locale.ROOT, "%d positions (%d ok, %d not ok) in %.1f s: %.1f positions/s, %d nodes/s%n",
+                positions, passed.get(), failed.get(), elapsedMillis / 1000.0, positions * 1000.0 / elapsedMillis,
+                nodes.get() * 1000 / elapsedMillis);
+        System.out.printf(Locale.ROOT, "time per position (us): p50 %d, p90 %d, p99 %d, p99.9 %d, max %d%n",
+                latencies.percentile(50), latencies.percentile(90), latencies.percentile(99),
+                latencies.percentile(99.9), latencies.percentile(100));
+    }
+
+    /**
+     * Runs the job for one position on the board of the calling worker thread.
+     *
+     * @param line The EPD line of the position.
+     * @return The outcome of the job.
+     */
+    Outcome runPosition(String line) {
+        EpdPosition position;
+        ChessBoard board = boards.get();
+        try {
+            position = EpdPosition.parse(line);
+            position.setUp(board);
+        } catch (IllegalArgumentException e) {
+            return new Outcome("", "error", e.getMessage(), 0);
+        }
+        String id = position.getOperation("id") != null ? position.getOperation("id") : "";
+        switch (mode) {
+            case "search":
+                return search(position, board, id);
+            case "perft":
+                return perft(position, board, id);
+            default:
+                return checkLegality(position, board, id);
+        }
+    }
+
+    /**
+     * Searches a position and compares the best move with its {@code bm} operation.
+     */
+    private Outcome search(EpdPosition position, ChessBoard board, String id) {
+        SearchResult result = new Search(board, position.getSideToMove(), limits).run();
+        String bestMove = result.getBestMove() != null ? result.getBestMove().toString() : "none";
+        String expected = position.getOperation("bm");
+        String status = expected == null || Arrays.asList(expected.split("\\s+")).contains(bestMove) ? "ok" : "fail";
+        return new Outcome(id, status, bestMove, result.getNodes());
+    }
+
+    /**
+     * Counts the move sequences of a position and compares the count with its {@code D<depth>} operation.
+     */
+    private Outcome perft(EpdPosition position, ChessBoard board, String id) {
+        long deadline = moveTimeMillis > 0 ? System.nanoTime() + moveTimeMillis * 1_000_000 : Long.MAX_VALUE;
+        long[] visited = new long[1];
+        long count = perft(board, position.getSideToMove(), depth, deadline, visited);
+        if (count < 0) {
+            return new Outcome(id, "timeout", "", visited[0]);
+        }
+        String expected = position.getOperation("D" + depth);
+        String status = expected == null || expected.equals(Long.toString(count)) ? "ok" : "fail";
+        return new Outcome(id, status, Long.toString(count), visited[0]);
+    }
+
+    /**
+     * Counts the move sequences of the given length. A sequence that captures a King ends there,
+     * since the game is over.
+     *
+     * @param board    The board to count on; it is restored before returning.
+     * @param side     The player to move.
+     * @param depth    The length of the sequences.
+     * @param deadline The moment the count is given up, as given by {@link System#nanoTime()}.
+     * @param visited  A one-element array counting the positions visited.
+     * @return The number of sequences, or -1 if the deadline passed.
+     */
+    private static long perft(ChessBoard board, int side, int depth, long deadline, long[] visited) {
+        if ((++visited[0] & (PERFT_CHECK_INTERVAL - 1)) == 0 && System.nanoTime() > deadline) {
+            return -1;
+        }
+        if (depth == 0) {
+            return 1;
+        }
+        long count = 0;
+        for (Move move : board.legalMoves(side)) {
+            ChessPiece captured = board.makeMove(move);
+            long subCount = captured instanceof King ? 1 : perft(board, -side, depth - 1, deadline, visited);
+            board.unmakeMove(move, captured);
+            if (subCount < 0) {
+                return -1;
+            }
+            count += subCount;
+        }
+        return count;
+    }
+
+    /**
+     * Checks that a position could occur in a game and that its {@code bm} moves are valid.
+     */
+    private Outcome checkLegality(EpdPosition position, ChessBoard board, String id) {
+        int whiteKings = 0, blackKings = 0;
+        for (ChessPiece piece : board.piecesInPlay()) {
+            if (piece instanceof King) {
+                if (piece.getOwner() == 1) {
+                    whiteKings++;
+                } else {
+                    blackKings++;
+                }
+            } else if (piece instanceof Pawns && (piece.getY() == 0 || piece.getY() == 7)) {
+                return new Outcome(id, "illegal", "pawn on rank " + (piece.getY() + 1), 0);
+            }
+        }
+        if (whiteKings != 1 || blackKings != 1) {
+            return new Outcome(id, "illegal", whiteKings + " white and " + blackKings + " black kings", 0);
+        }
+        String expected = position.getOperation("bm");
+        if (expected != null) {
+            List<Move> moves = board.legalMoves(position.getSideToMove());
+            for (String text : expected.split("\\s+")) {
+                try {
+                    if (!moves.contains(Move.parse(text))) {
+                        return new Outcome(id, "illegal", "invalid bm " + text, 0);
+                    }
+                } catch (IllegalArgumentException e) {
+                    return new Outcome(id, "illegal", e.getMessage(), 0);
+                }
+            }
+        }
+        return new Outcome(id, "ok", "legal", 0);
+    }
+
+    private static String quote(String text) {
+        return "\"" + text.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * The outcome of the job for one position.
+     */
+    static final class Outcome {
+        private final String id;
+        /**
+         * "ok", "fail", "timeout", "illegal" or "error".
+         */
+        private final String status;
+        private final String result;
+        private final long nodes;
+
+        Outcome(String id, String status, String result, long nodes) {
+            this.id = id;
+            this.status = status;
+            this.result = result;
+            this.nodes = nodes;
+        }
+    }
+
+    /**
+     * Collects the time spent per position from all worker threads and reports its distribution.
+     */
+    static final class LatencyRecorder {
+        private long[] values = new long[1024];
+        private int count;
+
+        synchronized void record(long micros) {
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+            }
+            values[count++] = micros;
+        }
+
+        synchronized long count() {
+            return count;
+        }
+
+        /**
+         * Returns the value below or at which the given percentage of the recorded values lie.
+         *
+         * @param percent The percentage between 0 and 100.
+         * @return The percentile, or 0 if nothing was recorded.
+         */
+        synchronized long percentile(double percent) {
+            if (count == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(values, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percent / 100 * count) - 1;
+            return sorted[Math.max(0, Math.min(count - 1, index))];
+        }
+    }
+}
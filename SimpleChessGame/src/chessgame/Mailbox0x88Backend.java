@@ -0,0 +1,65 @@
+package chessgame;
+
+/**
+ * The class stores the pieces in a 0x88 mailbox: a one-dimensional array of 128 cells, of which
+ * only the left half of every 16-cell row belongs to the board.
+ * <p>
+ * The cell of position (x, y) is {@link BoardBackend#cellOf(int, int) y * 16 + x}, so the cells are used
+ * directly as array indices. Walking along a row, column or diagonal is adding a constant step to the cell
+ * number. Because the column uses the low four bits and the row the high four bits, a step that leaves the
+ * board always sets bit 3 or bit 7, so a single {@code & 0x88} test on the cell replaces the four
+ * comparisons of the array backend.
+ */
+public class Mailbox0x88Backend implements BoardBackend {
+    /**
+     * The bits that are set in the cell number of every position off the board.
+     */
+    private static final int OFF_BOARD = 0x88;
+
+    /**
+     * The cells of the mailbox, each holding a ChessPiece or null.
+     */
+    private final ChessPiece[] cells = new ChessPiece[128];
+
+    @Override
+    public boolean isOnBoard(int x, int y) {
+        return ((x | y) & ~7) == 0;
+    }
+
+    @Override
+    public boolean isOnBoard(int cell) {
+        return (cell & OFF_BOARD) == 0;
+    }
+
+    @Override
+    public ChessPiece getPiece(int x, int y) {
+        return cells[BoardBackend.cellOf(x, y)];
+    }
+
+    @Override
+    public ChessPiece getPiece(int cell) {
+        return cells[cell];
+    }
+
+    @Override
+    public void setPiece(int x, int y, ChessPiece piece) {
+        cells[BoardBackend.cellOf(x, y)] = piece;
+    }
+
+    @Override
+    public boolean isPathClear(int startX, int startY, int targetX, int targetY) {
+        int step = BoardBackend.cellOf(Integer.compare(targetX, startX), Integer.compare(targetY, startY));
+        int target = BoardBackend.cellOf(targetX, targetY);
+        for (int cell = BoardBackend.cellOf(startX, startY) + step; cell != target; cell += step) {
+            if (cells[cell] != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public BoardBackend createEmpty() {
+        return new Mailbox0x88Backend();
+    }
+}
@@ -1,7 +1,70 @@
 package chessgame;
 
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The entry point of the chess game.
+ * <p>
+ * Without arguments the game speaks the UCI protocol on standard input and output, so GUIs and
+ * tournament managers can drive it; {@code uci} selects this mode explicitly. The first argument selects
+ * another mode instead:
+ * - {@code demo} replays a short scripted game.
+ * - {@code selfplay} plays a match between two configurations, see {@link SelfPlayTournament}.
+ * - {@code epd} runs the positions of an EPD test suite, see {@link EpdRunner}.
+ * - {@code store} ingests games into or queries a position database, see {@link PositionStore}.
+ * - {@code crosscheck} compares a board backend against the original one, see {@link BackendCrossCheck}.
+ * Any other first argument prints the usage and exits with status 2.
+ */
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String mode = args.length > 0 ? args[0] : "uci";
+        String[] modeArgs = args.length > 0 ? Arrays.copyOfRange(args, 1, args.length) : args;
+        switch (mode) {
+            case "uci":
+                new UciEngine(System.in, System.out).run();
+                break;
+            case "demo":
+                runDemo();
+                break;
+            case "selfplay":
+                SelfPlayTournament.main(modeArgs);
+                break;
+            case "epd":
+                EpdRunner.main(modeArgs);
+                break;
+            case "store":
+                PositionStore.main(modeArgs);
+                break;
+            case "crosscheck":
+                BackendCrossCheck.main(modeArgs);
+                break;
+            default:
+                System.err.println("Unknown mode: " + mode);
+                printUsage();
+                System.exit(2);
+        }
+    }
+
+    /**
+     * Prints the usage of all modes on the error stream.
+     */
+    private static void printUsage() {
+        System.err.println("Usage: [uci]");
+        System.err.println("       demo");
+        System.err.println("       selfplay <openings> <configA> <configB> <results.csv> [--games N] [--threads N]"
+                + " [--max-plies N] [--random-plies N] [--seed S] [--sprt ELO0 ELO1] [--alpha A] [--beta B]");
+        System.err.println("       epd <suite.epd> <results.csv> [--mode search|perft|legal] [--depth N]"
+                + " [--movetime MS] [--nodes N] [--threads N] [--backend array|0x88]");
+        System.err.println("       store ingest <store> <games.txt> [--capacity N]");
+        System.err.println("       store query <store> [moves ...] | --fen <placement> <w|b>");
+        System.err.println("       crosscheck [--backend 0x88] [--games N] [--plies N] [--seed S]");
+    }
+
+    /**
+     * Replays a short scripted game, printing the board after every move.
+     */
+    private static void runDemo() {
 
         ChessBoard board = new ChessBoard();
 
@@ -0,0 +1,139 @@
+package chessgame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The class represents a single move of a piece from one position on the chessboard to another.
+ * <p>
+ * Moves are written in coordinate notation: the x-coordinate becomes a file letter ('a' to 'h')
+ * and the y-coordinate a rank digit ('1' to '8'), so the move from (1, 1) to (1, 3) is written "b2b4".
+ */
+public final class Move {
+    /**
+     * The x-coordinate of the starting position.
+     */
+    private final int startX;
+    /**
+     * The y-coordinate of the starting position.
+     */
+    private final int startY;
+    /**
+     * The x-coordinate of the target position.
+     */
+    private final int targetX;
+    /**
+     * The y-coordinate of the target position.
+     */
+    private final int targetY;
+
+    /**
+     * Constructs a move between two positions.
+     *
+     * @param startX  The x-coordinate of the starting position.
+     * @param startY  The y-coordinate of the starting position.
+     * @param targetX The x-coordinate of the target position.
+     * @param targetY The y-coordinate of the target position.
+     */
+    public Move(int startX, int startY, int targetX, int targetY) {
+        this.startX = startX;
+        this.startY = startY;
+        this.targetX = targetX;
+        this.targetY = targetY;
+    }
+
+    /**
+     * Parses a move written in coordinate notation, for example "b2b4".
+     * A fifth character naming a promotion piece ('q', 'r', 'b' or 'n'), as sent by chess GUIs, is accepted
+     * and ignored, since the game has no promotion rule.
+     *
+     * @param text The move in coordinate notation.
+     * @return The parsed move.
+     * @throws IllegalArgumentException if the text is not a move in coordinate notation.
+     */
+    public static Move parse(String text) {
+        if (text.length() < 4 || text.length() > 5 || (text.length() == 5 && "qrbn".indexOf(text.charAt(4)) < 0)
+                || text.charAt(0) < 'a' || text.charAt(0) > 'h' || text.charAt(1) < '1' || text.charAt(1) > '8'
+                || text.charAt(2) < 'a' || text.charAt(2) > 'h' || text.charAt(3) < '1' || text.charAt(3) > '8') {
+            throw new IllegalArgumentException("Not a move in coordinate notation: " + text);
+        }
+        return new Move(text.charAt(0) - 'a', text.charAt(1) - '1', text.charAt(2) - 'a', text.charAt(3) - '1');
+    }
+
+    /**
+     * Parses a list of moves in coordinate notation separated by whitespace, for example "b2b4 b7b5".
+     *
+     * @param text The moves in coordinate notation.
+     * @return The parsed moves, in order.
+     * @throws IllegalArgumentException if one of the moves is not in coordinate notation.
+     */
+    public static List<Move> parseAll(String text) {
+        List<Move> moves = new ArrayList<>();
+        for (String token : text.trim().split("\\s+")) {
+            if (!token.isEmpty()) {
+                moves.add(parse(token));
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * Returns the x-coordinate of the starting position.
+     *
+     * @return The x-coordinate of the starting position.
+     */
+    public int getStartX() {
+        return startX;
+    }
+
+    /**
+     * Returns the y-coordinate of the starting position.
+     *
+     * @return The y-coordinate of the starting position.
+     */
+    public int getStartY() {
+        return startY;
+    }
+
+    /**
+     * Returns the x-coordinate of the target position.
+     *
+     * @return The x-coordinate of the target position.
+     */
+    public int getTargetX() {
+        return targetX;
+    }
+
+    /**
+     * Returns the y-coordinate of the target position.
+     *
+     * @return The y-coordinate of the target position.
+     */
+    public int getTargetY() {
+        return targetY;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Move)) {
+            return false;
+        }
+        Move other = (Move) o;
+        return startX == other.startX && startY == other.startY && targetX == other.targetX && targetY == other.targetY;
+    }
+
+    @Override
+    public int hashCode() {
+        return ((startX * 8 + startY) * 8 + targetX) * 8 + targetY;
+    }
+
+    /**
+     * Returns the move in coordinate notation, for example "b2b4".
+     *
+     * @return The move in coordinate notation.
+     */
+    @Override
+    public String toString() {
+        return "" + (char) ('a' + startX) + (char) ('1' + startY) + (char) ('a' + targetX) + (char) ('1' + targetY);
+    }
+}
@@ -0,0 +1,80 @@
+package chessgame;
+
+/**
+ * The class holds the statistics a {@link PositionStore} keeps for one position:
+ * the number of games it occurred in and how those games ended.
+ */
+public final class PositionStats {
+    /**
+     * The number of games the position occurred in.
+     */
+    private final long games;
+    /**
+     * The number of those games won by Player 1 (White).
+     */
+    private final long whiteWins;
+    /**
+     * The number of those games drawn.
+     */
+    private final long draws;
+    /**
+     * The number of those games won by Player -1 (Black).
+     */
+    private final long blackWins;
+
+    /**
+     * Constructs position statistics.
+     *
+     * @param games     The number of games the position occurred in.
+     * @param whiteWins The number of those games won by White.
+     * @param draws     The number of those games drawn.
+     * @param blackWins The number of those games won by Black.
+     */
+    public PositionStats(long games, long whiteWins, long draws, long blackWins) {
+        this.games = games;
+        this.whiteWins = whiteWins;
+        this.draws = draws;
+        this.blackWins = blackWins;
+    }
+
+    /**
+     * Returns the number of games the position occurred in.
+     *
+     * @return The number of games.
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * Returns the number of games won by White.
+     *
+     * @return The number of White wins.
+     */
+    public long getWhiteWins() {
+        return whiteWins;
+    }
+
+    /**
+     * Returns the number of games drawn.
+     *
+     * @return The number of draws.
+     */
+    public long getDraws() {
+        return draws;
+    }
+
+    /**
+     * Returns the number of games won by Black.
+     *
+     * @return The number of Black wins.
+     */
+    public long getBlackWins() {
+        return blackWins;
+    }
+
+    @Override
+    public String toString() {
+        return games + " games: +" + whiteWins + " =" + draws + " -" + blackWins;
+    }
+}
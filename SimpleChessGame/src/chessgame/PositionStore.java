@@ -0,0 +1,552 @@
+package chessgame;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The class stores statistics for a very large number of unique positions outside the Java heap.
+ * <p>
+ * The store is a single memory-mapped file holding an open-addressing hash table. Every slot is a
+ * fixed-width record of {@value #RECORD_SIZE} bytes:
+ * <pre>
+ *  0  long   Zobrist hash of the position (0 marks an empty slot)
+ *  8  byte[32] the position, 4 bits per square (see {@link #pack(ChessBoard, byte[])})
+ * 40  int    the player to move
+ * 44  int    the number of games the position occurred in
+ * 48  int    the number of those games won by White
+ * 52  int    the number of those games drawn
+ * 56  int    the number of those games won by Black
+ * 60  int    reserved
+ * </pre>
+ * Slots are found by linear probing from the hash. Two positions with the same hash are told apart by their
+ * packed boards, so a hash collision never merges the statistics of different positions. Counters stop at
+ * {@link Integer#MAX_VALUE} instead of overflowing. When the table is three quarters full it is doubled in
+ * place: the file is extended and the records are rehashed into the larger table, so the file is never
+ * replaced while it is mapped. A growth that is interrupted leaves the file unusable.
+ * <p>
+ * Games are ingested incrementally: every game adds to the statistics already in the file. A game counts
+ * once for every distinct position it passes through, even if a position repeats within the game.
+ * <p>
+ * The store is not thread-safe. Usage:
+ * <pre>
+ * store ingest &lt;store&gt; &lt;games.txt&gt; [--capacity N]
+ * store query &lt;store&gt; [moves ...]
+ * store query &lt;store&gt; --fen &lt;placement&gt; &lt;w|b&gt;
+ * </pre>
+ * A games file holds one game per line: its moves in coordinate notation followed by the result
+ * ("1-0", "0-1" or "1/2-1/2"), for example "b2b4 b7b5 1/2-1/2".
+ */
+public class PositionStore implements Closeable {
+    /**
+     * The number identifying a position store file ("CPS1").
+     */
+    private static final int MAGIC = 0x43505331;
+    /**
+     * The size of the file header in bytes. The header holds the magic number, the record size,
+     * the number of slots, the number of used slots and the number of games ingested.
+     */
+    private static final int HEADER_SIZE = 64;
+    /**
+     * The size of one record in bytes.
+     */
+    private static final int RECORD_SIZE = 64;
+    /**
+     * The size of one mapped region is 2 to the power of this. Records never cross a region border,
+     * as the region size is a multiple of the record size and the header size.
+     */
+    private static final int CHUNK_BITS = 30;
+    /**
+     * The number of slots of a new store when no capacity is given.
+     */
+    private static final long DEFAULT_CAPACITY = 1 << 20;
+    /**
+     * The share of used slots above which the table is doubled.
+     */
+    private static final double MAX_LOAD = 0.75;
+
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_RECORD_SIZE = 4;
+    private static final int HEADER_CAPACITY = 8;
+    private static final int HEADER_SIZE_FIELD = 16;
+    private static final int HEADER_GAMES = 24;
+
+    private static final int KEY = 0;
+    private static final int BOARD = 8;
+    private static final int SIDE = 40;
+    private static final int GAMES = 44;
+    private static final int WHITE_WINS = 48;
+    private static final int DRAWS = 52;
+    private static final int BLACK_WINS = 56;
+    /**
+     * The number of bytes of a packed board.
+     */
+    private static final int PACKED_SIZE = 32;
+    /**
+     * The piece symbols in the order of their 4-bit codes, starting at 1. Player -1's codes have bit 3 set.
+     */
+    private static final String PIECE_CODES = "KQRBNP";
+    /**
+     * An empty record, written to clear a slot.
+     */
+    private static final byte[] EMPTY_RECORD = new byte[RECORD_SIZE];
+
+    /**
+     * The file holding the store.
+     */
+    private final Path file;
+    /**
+     * The channel the file is mapped through.
+     */
+    private FileChannel channel;
+    /**
+     * The mapped regions of the file, each 2^{@value #CHUNK_BITS} bytes except possibly the last.
+     */
+    private MappedByteBuffer[] chunks;
+    /**
+     * The number of slots, always a power of two.
+     */
+    private long capacity;
+    /**
+     * The number of used slots.
+     */
+    private long size;
+    /**
+     * Reused buffers for packed boards, so lookups do not allocate.
+     */
+    private final byte[] packed = new byte[PACKED_SIZE];
+    private final byte[] stored = new byte[PACKED_SIZE];
+
+    private PositionStore(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Opens a store, creating the file if it does not exist yet.
+     *
+     * @param file     The file holding the store.
+     * @param capacity The number of slots of a new store; rounded up to a power of two and ignored for existing files.
+     * @return The opened store.
+     * @throws IOException if the file cannot be opened or is not a position store.
+     */
+    public static PositionStore open(Path file, long capacity) throws IOException {
+        PositionStore store = new PositionStore(file);
+        if (Files.exists(file)) {
+            store.map();
+        } else {
+            store.create(Long.highestOneBit(Math.max(16, capacity) * 2 - 1));
+        }
+        return store;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || !(args[0].equals("ingest") || args[0].equals("query"))) {
+            System.err.println("Usage: store ingest <store> <games.txt> [--capacity N]");
+            System.err.println("       store query <store> [moves ...] | --fen <placement> <w|b>");
+            return;
+        }
+        Path storeFile = Paths.get(args[1]);
+        if (args[0].equals("ingest")) {
+            long capacity = DEFAULT_CAPACITY;
+            if (args.length >= 5 && args[3].equals("--capacity")) {
+                capacity = Long.parseLong(args[4]);
+            }
+            long start = System.nanoTime();
+            try (PositionStore store = open(storeFile, capacity);
+                 BufferedReader reader = Files.newBufferedReader(Paths.get(args[2]), StandardCharsets.UTF_8)) {
+                long games = store.ingest(reader);
+                System.out.printf("Ingested %d games in %d ms; store holds %d games, %d unique positions in %d slots%n",
+                        games, (System.nanoTime() - start) / 1_000_000, store.gamesIngested(), store.size(), store.capacity());
+            }
+            return;
+        }
+
+        if (!Files.exists(storeFile)) {
+            System.err.println("No position store: " + storeFile);
+            return;
+        }
+        ChessBoard board = new ChessBoard();
+        int side = 1;
+        if (args.length >= 5 && args[2].equals("--fen")) {
+            board.loadPlacement(args[3]);
+            side = args[4].equals("b") ? -1 : 1;
+        } else {
+            for (Move move : Move.parseAll(String.join(" ", Arrays.copyOfRange(args, 2, args.length)))) {
+                if (!board.playMove(move, side)) {
+                    throw new IllegalArgumentException("Invalid move: " + move);
+                }
+                side = -side;
+            }
+        }
+        try (PositionStore store = open(storeFile, DEFAULT_CAPACITY)) {
+            PositionStats stats = store.lookup(board, side);
+            System.out.println(stats != null ? stats : "Position not found");
+        }
+    }
+
+    /**
+     * Reads games, one per line, and adds every position of every game to the statistics.
+     * The number of games in the header is updated after every game. A game with an invalid move or
+     * without a result is reported on the error stream; for an invalid move, the positions before it
+     * are still counted.
+     *
+     * @param reader The games to read.
+     * @return The number of games ingested.
+     * @throws IOException if the games cannot be read or the store cannot grow.
+     */
+    public long ingest(BufferedReader reader) throws IOException {
+        Set<Long> seen = new HashSet<>();
+        long games = 0;
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            int split = trimmed.lastIndexOf(' ');
+            String resultText = trimmed.substring(split + 1);
+            int result = resultText.equals("1-0") ? 1 : resultText.equals("0-1") ? -1 : resultText.equals("1/2-1/2") ? 0 : 2;
+            if (result == 2) {
+                System.err.println("Line " + lineNumber + ": missing result");
+                continue;
+            }
+            List<Move> moves;
+            try {
+                moves = Move.parseAll(split < 0 ? "" : trimmed.substring(0, split));
+            } catch (IllegalArgumentException e) {
+                System.err.println("Line " + lineNumber + ": " + e.getMessage());
+                continue;
+            }
+
+            ChessBoard board = new ChessBoard();
+            seen.clear();
+            int side = 1;
+            record(board, side, result, seen);
+            for (Move move : moves) {
+                if (!board.playMove(move, side)) {
+                    System.err.println("Line " + lineNumber + ": invalid move " + move);
+                    break;
+                }
+                side = -side;
+                record(board, side, result, seen);
+            }
+            games++;
+            putLong(HEADER_GAMES, getLong(HEADER_GAMES) + 1);
+        }
+        return games;
+    }
+
+    /**
+     * Adds one game's result to the statistics of a position.
+     *
+     * @param board      The board holding the position.
+     * @param sideToMove The player to move.
+     * @param result     The result of the game (1 White won, 0 draw, -1 Black won).
+     * @throws IOException if the store has to grow and cannot.
+     */
+    public void record(ChessBoard board, int sideToMove, int result) throws IOException {
+        pack(board, packed);
+        long key = keyOf(board, sideToMove);
+        long slot = find(key, packed, sideToMove);
+        if (slot < 0) {
+            if (size + 1 > capacity * MAX_LOAD) {
+                grow();
+                slot = find(key, packed, sideToMove);
+            }
+            slot = -slot - 1;
+            long offset = offsetOf(slot);
+            putLong(offset + KEY, key);
+            put(offset + BOARD, packed);
+            putInt(offset + SIDE, sideToMove);
+            size++;
+            putLong(HEADER_SIZE_FIELD, size);
+        }
+        long offset = offsetOf(slot);
+        increment(offset + GAMES);
+        increment(offset + (result > 0 ? WHITE_WINS : result < 0 ? BLACK_WINS : DRAWS));
+    }
+
+    /**
+     * Looks up the statistics of a position.
+     *
+     * @param board      The board holding the position.
+     * @param sideToMove The player to move.
+     * @return The statistics, or null if the position is not in the store.
+     */
+    public PositionStats lookup(ChessBoard board, int sideToMove) {
+        pack(board, packed);
+        long slot = find(keyOf(board, sideToMove), packed, sideToMove);
+        if (slot < 0) {
+            return null;
+        }
+        long offset = offsetOf(slot);
+        return new PositionStats(getInt(offset + GAMES), getInt(offset + WHITE_WINS), getInt(offset + DRAWS),
+                getInt(offset + BLACK_WINS));
+    }
+
+    /**
+     * Returns the number of unique positions in the store.
+     *
+     * @return The number of used slots.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of games ingested into the store over its lifetime.
+     *
+     * @return The number of games.
+     */
+    public long gamesIngested() {
+        return getLong(HEADER_GAMES);
+    }
+
+    /**
+     * Returns the number of slots of the hash table.
+     *
+     * @return The number of slots.
+     */
+    public long capacity() {
+        return capacity;
+    }
+
+    /**
+     * Writes all changes to the file and releases it.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        for (MappedByteBuffer chunk : chunks) {
+            chunk.force();
+        }
+        channel.close();
+        channel = null;
+        chunks = null;
+    }
+
+    /**
+     * Records a position unless it already occurred in the current game.
+     */
+    private void record(ChessBoard board, int sideToMove, int result, Set<Long> seen) throws IOException {
+        if (seen.add(keyOf(board, sideToMove))) {
+            record(board, sideToMove, result);
+        }
+    }
+
+    /**
+     * Finds the slot of a position by linear probing.
+     *
+     * @param key        The hash of the position.
+     * @param board      The packed position.
+     * @param sideToMove The player to move.
+     * @return The slot holding the position, or {@code -(slot + 1)} for the empty slot where it belongs.
+     */
+    private long find(long key, byte[] board, int sideToMove) {
+        long mask = capacity - 1;
+        for (long slot = key & mask; ; slot = (slot + 1) & mask) {
+            long offset = offsetOf(slot);
+            long slotKey = getLong(offset + KEY);
+            if (slotKey == 0) {
+                return -slot - 1;
+            }
+            if (slotKey == key && getInt(offset + SIDE) == sideToMove) {
+                get(offset + BOARD, stored);
+                if (Arrays.equals(stored, board)) {
+                    return slot;
+                }
+            }
+        }
+    }
+
+    /**
+     * Doubles the number of slots in place.
+     * <p>
+     * The file is extended to twice the number of slots and the records are rehashed one cluster (a run of
+     * used slots) at a time: the cluster is read, cleared and its records are inserted with the new mask.
+     * The home slot of a record stays the same or moves up by the old number of slots, so the records of
+     * a cluster never need a slot of a cluster that is not rehashed yet. The walk starts after an empty slot,
+     * so the cluster wrapping around the end of the old table is rehashed last, as one cluster.
+     *
+     * @throws IOException if the file cannot be extended.
+     */
+    private void grow() throws IOException {
+        long oldCapacity = capacity;
+        mapChunks(HEADER_SIZE + oldCapacity * 2 * RECORD_SIZE);
+        capacity = oldCapacity * 2;
+
+        long empty = 0;
+        while (getLong(offsetOf(empty) + KEY) != 0) {
+            empty++;
+        }
+        List<byte[]> cluster = new ArrayList<>();
+        byte[] board = new byte[PACKED_SIZE];
+        for (long i = 1; i <= oldCapacity; i++) {
+            long offset = offsetOf((empty + i) & (oldCapacity - 1));
+            if (getLong(offset + KEY) != 0) {
+                byte[] record = new byte[RECORD_SIZE];
+                get(offset, record);
+                put(offset, EMPTY_RECORD);
+                cluster.add(record);
+                continue;
+            }
+            for (byte[] record : cluster) {
+                ByteBuffer fields = ByteBuffer.wrap(record);
+                System.arraycopy(record, BOARD, board, 0, PACKED_SIZE);
+                long slot = -find(fields.getLong(KEY), board, fields.getInt(SIDE)) - 1;
+                put(offsetOf(slot), record);
+            }
+            cluster.clear();
+        }
+        putLong(HEADER_CAPACITY, capacity);
+    }
+
+    /**
+     * Creates a new, empty store file.
+     *
+     * @param slots The number of slots, a power of two.
+     * @throws IOException if the file cannot be created.
+     */
+    private void create(long slots) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        capacity = slots;
+        size = 0;
+        mapChunks(HEADER_SIZE + slots * RECORD_SIZE);
+        putInt(HEADER_MAGIC, MAGIC);
+        putInt(HEADER_RECORD_SIZE, RECORD_SIZE);
+        putLong(HEADER_CAPACITY, capacity);
+    }
+
+    /**
+     * Maps an existing store file and reads its header.
+     *
+     * @throws IOException if the file cannot be mapped or is not a position store.
+     */
+    private void map() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        mapChunks(channel.size());
+        if (channel.size() < HEADER_SIZE || getInt(HEADER_MAGIC) != MAGIC || getInt(HEADER_RECORD_SIZE) != RECORD_SIZE) {
+            close();
+            throw new IOException("Not a position store: " + file);
+        }
+        capacity = getLong(HEADER_CAPACITY);
+        size = getLong(HEADER_SIZE_FIELD);
+    }
+
+    /**
+     * Maps the file in regions of 2^{@value #CHUNK_BITS} bytes, extending it to the given length.
+     * Regions that are already mapped at full size are kept, so growing only maps the new part of the file.
+     *
+     * @param length The length of the file in bytes.
+     * @throws IOException if the file cannot be mapped.
+     */
+    private void mapChunks(long length) throws IOException {
+        long chunkSize = 1L << CHUNK_BITS;
+        int count = (int) ((length + chunkSize - 1) >>> CHUNK_BITS);
+        MappedByteBuffer[] mapped = chunks;
+        chunks = new MappedByteBuffer[Math.max(1, count)];
+        for (int i = 0; i < chunks.length; i++) {
+            if (mapped != null && i < mapped.length && mapped[i].capacity() == chunkSize) {
+                chunks[i] = mapped[i];
+                continue;
+            }
+            long start = (long) i << CHUNK_BITS;
+            chunks[i] = channel.map(FileChannel.MapMode.READ_WRITE, start, Math.min(chunkSize, length - start));
+        }
+    }
+
+    /**
+     * Computes the hash used as key, avoiding 0, which marks empty slots.
+     */
+    private static long keyOf(ChessBoard board, int sideToMove) {
+        long key = Zobrist.hash(board, sideToMove);
+        return key != 0 ? key : 1;
+    }
+
+    /**
+     * Packs a position into 4 bits per square. Square {@code y * 8 + x} uses the low half of byte
+     * {@code square / 2} if it is even and the high half if it is odd. The code is 0 for an empty cell,
+     * 1 to 6 for Player 1's King, Queen, Rook, Bishop, Knight and Pawn, and 9 to 14 for Player -1's.
+     *
+     * @param board  The board holding the position.
+     * @param target The 32-byte array to pack into.
+     */
+    private static void pack(ChessBoard board, byte[] target) {
+        Arrays.fill(target, (byte) 0);
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 8; x++) {
+                ChessPiece piece = board.getPiece(x, y);
+                if (piece != null) {
+                    int code = PIECE_CODES.indexOf(piece.getSymbol()) + 1 + (piece.getOwner() == 1 ? 0 : 8);
+                    int square = y * 8 + x;
+                    target[square >> 1] |= (byte) (code << ((square & 1) * 4));
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds one to a counter, stopping at {@link Integer#MAX_VALUE}.
+     */
+    private void increment(long offset) {
+        int value = getInt(offset);
+        if (value != Integer.MAX_VALUE) {
+            putInt(offset, value + 1);
+        }
+    }
+
+    private long offsetOf(long slot) {
+        return HEADER_SIZE + slot * RECORD_SIZE;
+    }
+
+    private MappedByteBuffer chunkOf(long offset) {
+        return chunks[(int) (offset >>> CHUNK_BITS)];
+    }
+
+    private static int indexOf(long offset) {
+        return (int) (offset & ((1L << CHUNK_BITS) - 1));
+    }
+
+    private long getLong(long offset) {
+        return chunkOf(offset).getLong(indexOf(offset));
+    }
+
+    private void putLong(long offset, long value) {
+        chunkOf(offset).putLong(indexOf(offset), value);
+    }
+
+    private int getInt(long offset) {
+        return chunkOf(offset).getInt(indexOf(offset));
+    }
+
+    private void putInt(long offset, int value) {
+        chunkOf(offset).putInt(indexOf(offset), value);
+    }
+
+    private void get(long offset, byte[] target) {
+        chunkOf(offset).get(indexOf(offset), target);
+    }
+
+    private void put(long offset, byte[] source) {
+        chunkOf(offset).put(indexOf(offset), source);
+    }
+}
@@ -0,0 +1,313 @@
+package chessgame;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * The class searches a chessboard for the best move of one player within a time budget.
+ * <p>
+ * The search deepens iteratively: it searches one move ahead, then two, and so on, until a limit from
+ * {@link SearchLimits} is reached. Because every finished iteration leaves a complete answer behind,
+ * a best move is available at any moment through {@link #getBestSoFar()}, and the search can be cut off
+ * after a fixed amount of wall-clock time without losing it.
+ * <p>
+ * Other threads control a running search cooperatively:
+ * - {@link #stop()} ends the search as soon as the search thread notices it.
+ * - {@link #ponderHit()} switches a search started in ponder mode (thinking on the opponent's time)
+ *   to normal mode, starting the clock from that moment.
+ * The search thread looks at these requests and at the clock every {@value #CHECK_INTERVAL} positions,
+ * so a search overruns its hard limit by at most the time needed to visit that many positions.
+ * <p>
+ * A Search runs once. The board is changed while searching and restored afterward, so it must not be
+ * used by any other thread until {@link #run()} returns.
+ */
+public class Search {
+    /**
+     * The score of capturing the opponent's King, which ends the game.
+     */
+    public static final int MATE_SCORE = 100000;
+    /**
+     * The number of positions visited between two checks of the clock and of stop requests.
+     * Must be a power of two.
+     */
+    public static final int CHECK_INTERVAL = 1024;
+    /**
+     * A score larger than any score the search can return.
+     */
+    private static final int INFINITY = MATE_SCORE + 1;
+
+    /**
+     * The board being searched.
+     */
+    private final ChessBoard board;
+    /**
+     * The player to find a move for (-1 for black, 1 for white).
+     */
+    private final int owner;
+    /**
+     * The limits bounding this search.
+     */
+    private final SearchLimits limits;
+    /**
+     * Receives the result of every finished iteration, called on the search thread.
+     */
+    private final Consumer<SearchResult> listener;
+    /**
+     * Whether another thread asked the search to stop.
+     */
+    private volatile boolean stopRequested;
+    /**
+     * Whether the search is thinking on the opponent's time and must ignore the time limits.
+     */
+    private volatile boolean pondering;
+    /**
+     * The moment the clock started, as given by {@link System#nanoTime()}.
+     */
+    private volatile long startNanos;
+    /**
+     * The result of the last finished iteration.
+     */
+    private volatile SearchResult bestSoFar;
+    /**
+     * The number of positions visited. Only written by the search thread.
+     */
+    private long nodes;
+    /**
+     * Whether the running iteration has been abandoned.
+     */
+    private boolean aborted;
+
+    /**
+     * Constructs a search for the best move of a player.
+     *
+     * @param board  The board to search.
+     * @param owner  The player to move (-1 for black, 1 for white).
+     * @param limits The limits bounding the search.
+     */
+    public Search(ChessBoard board, int owner, SearchLimits limits) {
+        this(board, owner, limits, result -> { });
+    }
+
+    /**
+     * Constructs a search for the best move of a player that reports its progress.
+     *
+     * @param board    The board to search.
+     * @param owner    The player to move (-1 for black, 1 for white).
+     * @param limits   The limits bounding the search.
+     * @param listener Receives the result of every finished iteration, called on the search thread.
+     */
+    public Search(ChessBoard board, int owner, SearchLimits limits, Consumer<SearchResult> listener) {
+        this.board = board;
+        this.owner = owner;
+        this.limits = limits;
+        this.listener = listener;
+        this.pondering = limits.isPonder();
+        this.startNanos = System.nanoTime();
+        this.bestSoFar = new SearchResult(null, 0, 0, 0, 0);
+    }
+
+    /**
+     * Runs the search on the calling thread until a limit is reached or the search is stopped.
+     * Searches that are infinite or still pondering do not return before {@link #stop()} or
+     * {@link #ponderHit()} is called, even if they have searched as deep as they can.
+     *
+     * @return The best result found; its move is null only if the player has no valid move.
+     */
+    public SearchResult run() {
+        startNanos = System.nanoTime();
+        List<Move> rootMoves = board.legalMoves(owner);
+        if (!rootMoves.isEmpty()) {
+            bestSoFar = new SearchResult(rootMoves.get(0), 0, 0, 0, elapsedMillis());
+        }
+
+        for (int depth = 1; depth <= limits.getMaxDepth() && !rootMoves.isEmpty(); depth++) {
+            if (stopRequested || softLimitReached()) {
+                break;
+            }
+            Move bestMove = null;
+            int alpha = -INFINITY;
+            for (Move move : rootMoves) {
+                ChessPiece captured = board.makeMove(move);
+                int score = captured instanceof King ? MATE_SCORE - 1 : -negamax(-owner, depth - 1, -INFINITY, -alpha, 1);
+                board.unmakeMove(move, captured);
+                if (aborted) {
+                    break;
+                }
+                if (score > alpha) {
+                    alpha = score;
+                    bestMove = move;
+                }
+            }
+            if (aborted) {
+                break;
+            }
+            bestSoFar = new SearchResult(bestMove, alpha, depth, nodes, elapsedMillis());
+            listener.accept(bestSoFar);
+            // Search the best move first in the next iteration, it is most likely to stay the best.
+            rootMoves.remove(bestMove);
+            rootMoves.add(0, bestMove);
+            if (Math.abs(alpha) >= MATE_SCORE - depth) {
+                break;
+            }
+        }
+
+        awaitRelease();
+        SearchResult result = bestSoFar;
+        return new SearchResult(result.getBestMove(), result.getScore(), result.getDepth(), nodes, elapsedMillis());
+    }
+
+    /**
+     * Asks the search to stop. The search returns the best result of its last finished iteration.
+     * May be called from any thread.
+     */
+    public void stop() {
+        synchronized (this) {
+            stopRequested = true;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Tells a pondering search that the opponent played the expected move.
+     * From now on the search respects its time limits, measured from this moment.
+     * May be called from any thread.
+     */
+    public void ponderHit() {
+        synchronized (this) {
+            startNanos = System.nanoTime();
+            pondering = false;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Returns the best result found so far. May be called from any thread while the search runs.
+     *
+     * @return The result of the last finished iteration.
+     */
+    public SearchResult getBestSoFar() {
+        return bestSoFar;
+    }
+
+    /**
+     * Searches a position with alpha-beta pruning in negamax form.
+     *
+     * @param side  The player to move in this position.
+     * @param depth The number of moves left to search.
+     * @param alpha The score the side to move is already sure of.
+     * @param beta  The score the opponent is already sure of.
+     * @param ply   The number of moves made since the root.
+     * @return The score of the position from the point of view of the side to move.
+     */
+    private int negamax(int side, int depth, int alpha, int beta, int ply) {
+        if (shouldAbort()) {
+            return 0;
+        }
+        if (depth == 0) {
+            return evaluate(side);
+        }
+        List<Move> moves = board.legalMoves(side);
+        if (moves.isEmpty()) {
+            return 0;
+        }
+        int best = -INFINITY;
+        for (Move move : moves) {
+            ChessPiece captured = board.makeMove(move);
+            int score = captured instanceof King ? MATE_SCORE - ply - 1 : -negamax(-side, depth - 1, -beta, -alpha, ply + 1);
+            board.unmakeMove(move, captured);
+            if (aborted) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Evaluates a position by counting material. Kings are not counted, since losing one ends the game.
+     *
+     * @param side The player to evaluate for.
+     * @return The material balance in centipawns from the point of view of the given player.
+     */
+    private int evaluate(int side) {
+        int score = 0;
+        for (int x = 0; x < 8; x++) {
+            for (int y = 0; y < 8; y++) {
+                ChessPiece piece = board.getPiece(x, y);
+                if (piece != null && !(piece instanceof King)) {
+                    score += piece.getValue() * 100 * piece.getOwner();
+                }
+            }
+        }
+        return score * side;
+    }
+
+    /**
+     * Counts the current position and decides whether the running iteration has to be abandoned.
+     * The node limit is checked for every position, the clock and stop requests every
+     * {@value #CHECK_INTERVAL} positions.
+     *
+     * @return {@code true} if the search must stop, {@code false} otherwise.
+     */
+    private boolean shouldAbort() {
+        nodes++;
+        if (limits.getMaxNodes() > 0 && nodes >= limits.getMaxNodes()) {
+            aborted = true;
+        } else if ((nodes & (CHECK_INTERVAL - 1)) == 0) {
+            aborted = stopRequested || hardLimitReached();
+        }
+        return aborted;
+    }
+
+    /**
+     * Checks whether the soft time limit has passed.
+     *
+     * @return {@code true} if no further iteration should be started, {@code false} otherwise.
+     */
+    private boolean softLimitReached() {
+        return !pondering && limits.getSoftTimeMillis() > 0 && elapsedMillis() >= limits.getSoftTimeMillis();
+    }
+
+    /**
+     * Checks whether the hard time limit has passed.
+     *
+     * @return {@code true} if the running iteration must be abandoned, {@code false} otherwise.
+     */
+    private boolean hardLimitReached() {
+        return !pondering && limits.getHardTimeMillis() > 0 && elapsedMillis() >= limits.getHardTimeMillis();
+    }
+
+    /**
+     * Returns the time passed since the clock started.
+     *
+     * @return The elapsed time in milliseconds.
+     */
+    private long elapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    /**
+     * Blocks an infinite or pondering search that has finished early until it is stopped,
+     * or in the case of pondering, until the opponent's move is confirmed.
+     */
+    private void awaitRelease() {
+        synchronized (this) {
+            while (!stopRequested && (limits.isInfinite() || pondering)) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
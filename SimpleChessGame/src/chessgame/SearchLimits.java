@@ -0,0 +1,193 @@
+package chessgame;
+
+/**
+ * The class describes how much work a {@link Search} may spend on one position.
+ * <p>
+ * A search is bounded by two time limits:
+ * - The soft limit is checked between iterations: once it has passed, no deeper iteration is started.
+ * - The hard limit is checked while searching: once it has passed, the running iteration is abandoned
+ *   and the best result of the last finished iteration is returned.
+ * A limit of zero means "no limit". Depth and node limits can be combined with the time limits.
+ * <p>
+ * Instances are immutable; the {@code with...} methods return modified copies.
+ */
+public final class SearchLimits {
+    /**
+     * The deepest iteration a search will run when no depth limit is given.
+     */
+    public static final int MAX_DEPTH = 64;
+    /**
+     * The number of moves assumed to remain in the game when the clock gives no move count.
+     */
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+    /**
+     * A safety margin subtracted from the remaining clock time, covering I/O and scheduling delays.
+     */
+    private static final long CLOCK_OVERHEAD_MILLIS = 20;
+
+    /**
+     * The soft time limit in milliseconds, or 0 if there is none.
+     */
+    private final long softTimeMillis;
+    /**
+     * The hard time limit in milliseconds, or 0 if there is none.
+     */
+    private final long hardTimeMillis;
+    /**
+     * The deepest iteration to search.
+     */
+    private final int maxDepth;
+    /**
+     * The number of nodes after which the search stops, or 0 if there is no node limit.
+     */
+    private final long maxNodes;
+    /**
+     * Whether the search starts in ponder mode, ignoring the time limits until {@link Search#ponderHit()}.
+     */
+    private final boolean ponder;
+    /**
+     * Whether the search keeps running until {@link Search#stop()} is called.
+     */
+    private final boolean infinite;
+
+    private SearchLimits(long softTimeMillis, long hardTimeMillis, int maxDepth, long maxNodes, boolean ponder, boolean infinite) {
+        this.softTimeMillis = softTimeMillis;
+        this.hardTimeMillis = hardTimeMillis;
+        this.maxDepth = maxDepth;
+        this.maxNodes = maxNodes;
+        this.ponder = ponder;
+        this.infinite = infinite;
+    }
+
+    /**
+     * Creates limits that only bound the search depth.
+     *
+     * @param depth The deepest iteration to search.
+     * @return The search limits.
+     */
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits(0, 0, Math.max(1, Math.min(depth, MAX_DEPTH)), 0, false, false);
+    }
+
+    /**
+     * Creates limits for a fixed amount of time per move.
+     * Both time limits are set to the given time, so the answer arrives within the budget.
+     *
+     * @param millis The time to spend in milliseconds.
+     * @return The search limits.
+     */
+    public static SearchLimits moveTime(long millis) {
+        long limit = Math.max(1, millis);
+        return new SearchLimits(limit, limit, MAX_DEPTH, 0, false, false);
+    }
+
+    /**
+     * Creates limits from a game clock.
+     * The soft limit is an even share of the remaining time plus most of the increment,
+     * the hard limit allows overrunning it up to five times but never more than a third of the clock.
+     *
+     * @param remainingMillis The time left on the player's clock in milliseconds.
+     * @param incrementMillis The time added to the clock after each move in milliseconds.
+     * @param movesToGo       The number of moves until the next time control, or 0 if unknown.
+     * @return The search limits.
+     */
+    public static SearchLimits forClock(long remainingMillis, long incrementMillis, int movesToGo) {
+        long available = Math.max(1, remainingMillis - CLOCK_OVERHEAD_MILLIS);
+        int moves = movesToGo > 0 ? movesToGo : DEFAULT_MOVES_TO_GO;
+        long soft = Math.min(available, available / moves + incrementMillis * 3 / 4);
+        long hard = Math.min(available, Math.max(soft, Math.min(soft * 5, available / 3)));
+        return new SearchLimits(Math.max(1, soft), Math.max(1, hard), MAX_DEPTH, 0, false, false);
+    }
+
+    /**
+     * Creates limits for a search that runs until it is stopped.
+     *
+     * @return The search limits.
+     */
+    public static SearchLimits infinite() {
+        return new SearchLimits(0, 0, MAX_DEPTH, 0, false, true);
+    }
+
+    /**
+     * Returns a copy of these limits with a different depth limit.
+     *
+     * @param depth The deepest iteration to search.
+     * @return The modified search limits.
+     */
+    public SearchLimits withMaxDepth(int depth) {
+        return new SearchLimits(softTimeMillis, hardTimeMillis, Math.max(1, Math.min(depth, MAX_DEPTH)), maxNodes, ponder, infinite);
+    }
+
+    /**
+     * Returns a copy of these limits with a node limit.
+     *
+     * @param nodes The number of nodes after which the search stops, or 0 for no limit.
+     * @return The modified search limits.
+     */
+    public SearchLimits withMaxNodes(long nodes) {
+        return new SearchLimits(softTimeMillis, hardTimeMillis, maxDepth, Math.max(0, nodes), ponder, infinite);
+    }
+
+    /**
+     * Returns a copy of these limits that starts in ponder mode.
+     *
+     * @return The modified search limits.
+     */
+    public SearchLimits withPonder() {
+        return new SearchLimits(softTimeMillis, hardTimeMillis, maxDepth, maxNodes, true, infinite);
+    }
+
+    /**
+     * Returns the soft time limit.
+     *
+     * @return The soft time limit in milliseconds, or 0 if there is none.
+     */
+    public long getSoftTimeMillis() {
+        return softTimeMillis;
+    }
+
+    /**
+     * Returns the hard time limit.
+     *
+     * @return The hard time limit in milliseconds, or 0 if there is none.
+     */
+    public long getHardTimeMillis() {
+        return hardTimeMillis;
+    }
+
+    /**
+     * Returns the depth limit.
+     *
+     * @return The deepest iteration to search.
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Returns the node limit.
+     *
+     * @return The node limit, or 0 if there is none.
+     */
+    public long getMaxNodes() {
+        return maxNodes;
+    }
+
+    /**
+     * Returns whether the search starts in ponder mode.
+     *
+     * @return {@code true} if the search ponders, {@code false} otherwise.
+     */
+    public boolean isPonder() {
+        return ponder;
+    }
+
+    /**
+     * Returns whether the search runs until it is stopped.
+     *
+     * @return {@code true} if the search is infinite, {@code false} otherwise.
+     */
+    public boolean isInfinite() {
+        return infinite;
+    }
+}
@@ -0,0 +1,99 @@
+package chessgame;
+
+/**
+ * The class holds the outcome of a {@link Search}: the best move found so far and how it was found.
+ * Instances are immutable, so a result can be handed to other threads while the search continues.
+ */
+public final class SearchResult {
+    /**
+     * The best move, or null if the player has no valid move.
+     */
+    private final Move bestMove;
+    /**
+     * The score of the best move in centipawns from the searching player's point of view.
+     */
+    private final int score;
+    /**
+     * The depth of the last finished iteration.
+     */
+    private final int depth;
+    /**
+     * The number of positions visited so far.
+     */
+    private final long nodes;
+    /**
+     * The time spent so far in milliseconds.
+     */
+    private final long elapsedMillis;
+
+    /**
+     * Constructs a search result.
+     *
+     * @param bestMove      The best move, or null if the player has no valid move.
+     * @param score         The score of the best move in centipawns.
+     * @param depth         The depth of the last finished iteration.
+     * @param nodes         The number of positions visited.
+     * @param elapsedMillis The time spent in milliseconds.
+     */
+    public SearchResult(Move bestMove, int score, int depth, long nodes, long elapsedMillis) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * Returns the best move.
+     *
+     * @return The best move, or null if the player has no valid move.
+     */
+    public Move getBestMove() {
+        return bestMove;
+    }
+
+    /**
+     * Returns the score of the best move.
+     *
+     * @return The score in centipawns from the searching player's point of view.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Returns the depth of the last finished iteration.
+     *
+     * @return The search depth.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Returns the number of positions visited.
+     *
+     * @return The node count.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the time spent.
+     *
+     * @return The elapsed time in milliseconds.
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Returns the search speed.
+     *
+     * @return The number of nodes visited per second.
+     */
+    public long getNodesPerSecond() {
+        return elapsedMillis > 0 ? nodes * 1000 / elapsedMillis : nodes * 1000;
+    }
+}
@@ -0,0 +1,419 @@
+package chessgame;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The class plays a match between two {@link EngineConfig}s to measure whether one is stronger or faster.
+ * <p>
+ * Games are played in parallel, one game per worker thread, each on its own board. Every opening from the
+ * opening file is played twice, once with each configuration as White, so neither side profits from a
+ * lucky opening. Results are counted from the point of view of the first configuration.
+ * <p>
+ * After the opening, a few random moves are played, the same ones in both games of a pair. Without them,
+ * configurations limited by depth or nodes replay identical games whenever an opening comes round again,
+ * and the {@link Sprt} would count every replay as a new result. A match without random moves is refused
+ * when it has more games than distinct games to play, unless a configuration is limited by time.
+ * <p>
+ * After every game the match can be stopped early by an {@link Sprt}: once the test accepts either
+ * hypothesis, no new games are started. The test is not consulted before one game pair per opening has
+ * been played, and games still running when it decides are neither written nor counted, so the summary
+ * shows the results the decision was made on. One CSV row is written per game, and a summary with the score,
+ * the Elo estimate, the average speed in nodes per second and the average time per move is printed at the end.
+ * <p>
+ * The opening file holds one opening per line as moves in coordinate notation, for example "b2b4 b7b5".
+ * Empty lines and lines starting with '#' are skipped. Usage:
+ * <pre>
+ * selfplay &lt;openings&gt; &lt;configA&gt; &lt;configB&gt; &lt;results.csv&gt;
+ *          [--games N] [--threads N] [--max-plies N] [--random-plies N] [--seed S]
+ *          [--sprt ELO0 ELO1] [--alpha A] [--beta B]
+ * </pre>
+ */
+public class SelfPlayTournament {
+    /**
+     * The number of plies after which an undecided game is scored as a draw.
+     */
+    private static final int DEFAULT_MAX_PLIES = 200;
+    /**
+     * The number of random moves played after the opening.
+     */
+    private static final int DEFAULT_RANDOM_PLIES = 4;
+
+    /**
+     * The first configuration, whose point of view the results are counted from.
+     */
+    private final EngineConfig first;
+    /**
+     * The second configuration.
+     */
+    private final EngineConfig second;
+    /**
+     * The openings to play, each a list of moves from the starting position.
+     */
+    private final List<List<Move>> openings;
+    /**
+     * The number of plies after which an undecided game is scored as a draw.
+     */
+    private final int maxPlies;
+    /**
+     * The number of random moves played after the opening.
+     */
+    private final int randomPlies;
+    /**
+     * The seed of the random moves; game pair {@code n} uses {@code seed + n}.
+     */
+    private final long seed;
+
+    /**
+     * Constructs a match between two configurations.
+     *
+     * @param first    The first configuration, whose point of view the results are counted from.
+     * @param second   The second configuration.
+     * @param openings The openings to play, all valid from the starting position;
+     *                 an empty list plays from the starting position only.
+     * @param maxPlies    The number of plies after which an undecided game is scored as a draw.
+     * @param randomPlies The number of random moves played after the opening.
+     * @param seed        The seed of the random moves; the same seed replays the same match.
+     */
+    public SelfPlayTournament(EngineConfig first, EngineConfig second, List<List<Move>> openings, int maxPlies,
+                              int randomPlies, long seed) {
+        this.first = first;
+        this.second = second;
+        this.openings = openings.isEmpty() ? List.of(List.of()) : openings;
+        this.maxPlies = maxPlies;
+        this.randomPlies = randomPlies;
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 4) {
+            System.err.println("Usage: selfplay <openings> <configA> <configB> <results.csv> [--games N] [--threads N]"
+                    + " [--max-plies N] [--random-plies N] [--seed S] [--sprt ELO0 ELO1] [--alpha A] [--beta B]");
+            return;
+        }
+        int games = 1000;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int maxPlies = DEFAULT_MAX_PLIES;
+        int randomPlies = DEFAULT_RANDOM_PLIES;
+        long seed = System.nanoTime();
+        double elo0 = 0, elo1 = 0, alpha = 0.05, beta = 0.05;
+        boolean sprt = false;
+        for (int i = 4; i < args.length; i++) {
+            switch (args[i]) {
+                case "--games":
+                    games = Integer.parseInt(args[++i]);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "--max-plies":
+                    maxPlies = Integer.parseInt(args[++i]);
+                    break;
+                case "--random-plies":
+                    randomPlies = Integer.parseInt(args[++i]);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+                case "--sprt":
+                    elo0 = Double.parseDouble(args[++i]);
+                    elo1 = Double.parseDouble(args[++i]);
+                    sprt = true;
+                    break;
+                case "--alpha":
+                    alpha = Double.parseDouble(args[++i]);
+                    break;
+                case "--beta":
+                    beta = Double.parseDouble(args[++i]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        SelfPlayTournament tournament = new SelfPlayTournament(EngineConfig.parse(args[1]), EngineConfig.parse(args[2]),
+                readOpenings(Paths.get(args[0])), maxPlies, randomPlies, seed);
+        tournament.play(games, threads, sprt ? new Sprt(elo0, elo1, alpha, beta) : null, Paths.get(args[3]));
+    }
+
+    /**
+     * Reads an opening file and checks that every opening can be played from the starting position.
+     *
+     * @param file The file holding one opening per line.
+     * @return The openings, each a list of moves from the starting position.
+     * @throws IOException              if the file cannot be read.
+     * @throws IllegalArgumentException if an opening contains a move that is not valid.
+     */
+    public static List<List<Move>> readOpenings(Path file) throws IOException {
+        List<List<Move>> openings = new ArrayList<>();
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        for (int i = 0; i < lines.size(); i++) {
+            String trimmed = lines.get(i).trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            List<Move> opening = Move.parseAll(trimmed);
+            ChessBoard board = new ChessBoard();
+            int side = 1;
+            for (Move move : opening) {
+                if (!board.playMove(move, side)) {
+                    throw new IllegalArgumentException("Invalid move " + move + " in line " + (i + 1) + " of " + file);
+                }
+                side = -side;
+            }
+            openings.add(opening);
+        }
+        return openings;
+    }
+
+    /**
+     * Plays the match and writes one CSV row per game, then prints a summary.
+     *
+     * @param games   The maximum number of games to play.
+     * @param threads The number of games played at the same time.
+     * @param sprt    The test used to stop the match early, or null to play all games.
+     * @param csvFile The file to write the game results to.
+     * @throws IOException              if the results cannot be written.
+     * @throws InterruptedException     if the calling thread is interrupted while waiting for games.
+     * @throws IllegalArgumentException if the match would replay identical games.
+     */
+    public void play(int games, int threads, Sprt sprt, Path csvFile) throws IOException, InterruptedException {
+        if (randomPlies == 0 && first.isDeterministic() && second.isDeterministic() && games > 2 * openings.size()) {
+            throw new IllegalArgumentException("Only " + 2 * openings.size() + " distinct games without random moves"
+                    + " or a time limit, but " + games + " requested");
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CompletionService<GameRecord> completion = new ExecutorCompletionService<>(executor);
+        AtomicBoolean stopped = new AtomicBoolean(false);
+        for (int i = 0; i < games; i++) {
+            int game = i;
+            completion.submit(() -> stopped.get() ? null : playGame(game));
+        }
+        executor.shutdown();
+
+        long wins = 0, draws = 0, losses = 0, discarded = 0;
+        long minimumGames = 2L * openings.size();
+        long[] nodes = new long[2], millis = new long[2], moves = new long[2];
+        Sprt.Decision decision = Sprt.Decision.CONTINUE;
+        boolean finished = false;
+        try (BufferedWriter writer = Files.newBufferedWriter(csvFile, StandardCharsets.UTF_8);
+             PrintWriter csv = new PrintWriter(writer)) {
+            csv.println("game,opening,white,black,result,plies,white_nodes,white_millis,black_nodes,black_millis");
+            for (int i = 0; i < games; i++) {
+                GameRecord record;
+                try {
+                    record = completion.take().get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Game failed", e.getCause());
+                }
+                if (record == null) {
+                    continue;
+                }
+                if (decision != Sprt.Decision.CONTINUE) {
+                    discarded++;
+                    continue;
+                }
+                csv.println(record.toCsv());
+                // PrintWriter swallows write errors; checkError() flushes and reports them.
+                if (csv.checkError()) {
+                    throw new IOException("Cannot write results to " + csvFile);
+                }
+
+                int firstScore = record.firstIsWhite ? record.result : -record.result;
+                if (firstScore > 0) {
+                    wins++;
+                } else if (firstScore < 0) {
+                    losses++;
+                } else {
+                    draws++;
+                }
+                int firstSide = record.firstIsWhite ? 0 : 1;
+                nodes[0] += record.nodes[firstSide];
+                millis[0] += record.millis[firstSide];
+                moves[0] += record.moves[firstSide];
+                nodes[1] += record.nodes[1 - firstSide];
+                millis[1] += record.millis[1 - firstSide];
+                moves[1] += record.moves[1 - firstSide];
+
+                if (sprt != null && wins + draws + losses >= minimumGames) {
+                    decision = sprt.decide(wins, draws, losses);
+                    if (decision != Sprt.Decision.CONTINUE) {
+                        stopped.set(true);
+                    }
+                }
+            }
+            finished = true;
+        } finally {
+            if (!finished) {
+                // A failed game or write ends the match; do not leave the remaining games running.
+                stopped.set(true);
+                executor.shutdownNow();
+            }
+        }
+        executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+
+        long played = wins + draws + losses;
+        double score = played > 0 ? (wins + draws * 0.5) / played : 0.5;
+        if (randomPlies > 0) {
+            System.out.println("random plies: " + randomPlies + " (seed " + seed + ")");
+        }
+        System.out.printf(Locale.ROOT, "%s vs %s: %d games, +%d =%d -%d, score %.1f%%, Elo %+.1f%n",
+                first.getName(), second.getName(), played, wins, draws, losses, score * 100, elo(score));
+        if (discarded > 0) {
+            System.out.println(discarded + " games finished after the SPRT decision were not counted");
+        }
+        printSpeed(first, nodes[0], millis[0], moves[0]);
+        printSpeed(second, nodes[1], millis[1], moves[1]);
+        if (sprt != null) {
+            System.out.printf(Locale.ROOT, "SPRT: LLR %.2f [%.2f, %.2f] -> %s%n", sprt.llr(wins, draws, losses),
+                    sprt.getLowerBound(), sprt.getUpperBound(), decision);
+        }
+    }
+
+    /**
+     * Plays one game of the match.
+     * Even games give White to the first configuration, odd games to the second, both from the same opening
+     * followed by the same random moves.
+     *
+     * @param game The number of the game.
+     * @return The record of the game.
+     */
+    GameRecord playGame(int game) {
+        int openingIndex = (game / 2) % openings.size();
+        boolean firstIsWhite = game % 2 == 0;
+        EngineConfig white = firstIsWhite ? first : second;
+        EngineConfig black = firstIsWhite ? second : first;
+        GameRecord record = new GameRecord(game, openingIndex, white, black, firstIsWhite);
+
+        ChessBoard board = new ChessBoard();
+        int side = 1;
+        for (Move move : openings.get(openingIndex)) {
+            board.playMove(move, side);
+            side = -side;
+            record.plies++;
+        }
+        Random random = new Random(seed + game / 2);
+        for (int i = 0; i < randomPlies; i++) {
+            List<Move> candidates = new ArrayList<>();
+            for (Move move : board.legalMoves(side)) {
+                // Random moves set up the position; they must not decide the game.
+                if (!(board.getPiece(move.getTargetX(), move.getTargetY()) instanceof King)) {
+                    candidates.add(move);
+                }
+            }
+            if (candidates.isEmpty()) {
+                break;
+            }
+            board.makeMove(candidates.get(random.nextInt(candidates.size())));
+            side = -side;
+            record.plies++;
+        }
+
+        while (record.plies < maxPlies) {
+            EngineConfig config = side == 1 ? white : black;
+            SearchResult result = new Search(board, side, config.getLimits()).run();
+            int index = side == 1 ? 0 : 1;
+            record.nodes[index] += result.getNodes();
+            record.millis[index] += result.getElapsedMillis();
+            record.moves[index]++;
+            if (result.getBestMove() == null) {
+                break;
+            }
+            ChessPiece captured = board.makeMove(result.getBestMove());
+            record.plies++;
+            if (captured instanceof King) {
+                record.result = side;
+                break;
+            }
+            side = -side;
+        }
+        return record;
+    }
+
+    /**
+     * Prints the average speed and time per move of one configuration.
+     *
+     * @param config The configuration.
+     * @param nodes  The number of positions it searched.
+     * @param millis The time it spent in milliseconds.
+     * @param moves  The number of moves it made.
+     */
+    private static void printSpeed(EngineConfig config, long nodes, long millis, long moves) {
+        System.out.printf(Locale.ROOT, "%s: %d nps, %.1f ms per move%n", config.getName(),
+                millis > 0 ? nodes * 1000 / millis : 0, moves > 0 ? (double) millis / moves : 0.0);
+    }
+
+    /**
+     * Converts a score into an Elo difference.
+     *
+     * @param score The score between 0 and 1.
+     * @return The Elo difference, limited to +-1000 for scores of 0 or 1.
+     */
+    private static double elo(double score) {
+        if (score <= 0 || score >= 1) {
+            return score <= 0 ? -1000 : 1000;
+        }
+        return -400 * Math.log10(1 / score - 1);
+    }
+
+    /**
+     * The record of one finished game.
+     */
+    static final class GameRecord {
+        private final int game;
+        private final int opening;
+        private final EngineConfig white;
+        private final EngineConfig black;
+        private final boolean firstIsWhite;
+        /**
+         * The winner (-1 for black, 1 for white), or 0 for a draw.
+         */
+        private int result;
+        private int plies;
+        /**
+         * The positions searched, time spent and moves made, indexed 0 for White and 1 for Black.
+         */
+        private final long[] nodes = new long[2];
+        private final long[] millis = new long[2];
+        private final long[] moves = new long[2];
+
+        GameRecord(int game, int opening, EngineConfig white, EngineConfig black, boolean firstIsWhite) {
+            this.game = game;
+            this.opening = opening;
+            this.white = white;
+            this.black = black;
+            this.firstIsWhite = firstIsWhite;
+        }
+
+        /**
+         * Returns the record as one CSV row.
+         *
+         * @return The CSV row.
+         */
+        String toCsv() {
+            String resultText = result > 0 ? "1-0" : result < 0 ? "0-1" : "1/2-1/2";
+            return game + "," + (opening + 1) + "," + quote(white.getName()) + "," + quote(black.getName()) + ","
+                    + resultText + "," + plies + "," + nodes[0] + "," + millis[0] + "," + nodes[1] + "," + millis[1];
+        }
+
+        private static String quote(String text) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package chessgame;
+
+/**
+ * The class implements the sequential probability ratio test (SPRT) used to stop a match early.
+ * <p>
+ * The test weighs two hypotheses about the Elo difference between two configurations: H0 says it is
+ * {@code elo0}, H1 says it is {@code elo1}. After every game the log-likelihood ratio (LLR) of the results
+ * so far is compared against two bounds derived from the accepted error rates. Crossing the upper bound
+ * accepts H1, crossing the lower bound accepts H0, and in between more games are needed.
+ * <p>
+ * The LLR uses the normal approximation over wins, draws and losses that is common in engine testing:
+ * {@code LLR = (s1 - s0) * (2 * s - s0 - s1) / (2 * var)}, where {@code s} is the mean score,
+ * {@code var} its variance, and {@code s0}, {@code s1} the expected scores under H0 and H1.
+ */
+public final class Sprt {
+    /**
+     * The possible outcomes of the test after some games.
+     */
+    public enum Decision {
+        /**
+         * Neither bound has been crossed, more games are needed.
+         */
+        CONTINUE,
+        /**
+         * The lower bound has been crossed, the Elo difference is most likely {@code elo0} or less.
+         */
+        ACCEPT_H0,
+        /**
+         * The upper bound has been crossed, the Elo difference is most likely {@code elo1} or more.
+         */
+        ACCEPT_H1
+    }
+
+    /**
+     * The expected score under H0.
+     */
+    private final double score0;
+    /**
+     * The expected score under H1.
+     */
+    private final double score1;
+    /**
+     * The LLR below which H0 is accepted.
+     */
+    private final double lowerBound;
+    /**
+     * The LLR above which H1 is accepted.
+     */
+    private final double upperBound;
+
+    /**
+     * Constructs a test between two Elo hypotheses.
+     *
+     * @param elo0  The Elo difference under H0.
+     * @param elo1  The Elo difference under H1; must be larger than {@code elo0}.
+     * @param alpha The accepted probability of accepting H1 when H0 is true.
+     * @param beta  The accepted probability of accepting H0 when H1 is true.
+     */
+    public Sprt(double elo0, double elo1, double alpha, double beta) {
+        if (elo1 <= elo0 || alpha <= 0 || alpha >= 1 || beta <= 0 || beta >= 1) {
+            throw new IllegalArgumentException("SPRT needs elo0 < elo1 and error rates between 0 and 1");
+        }
+        this.score0 = expectedScore(elo0);
+        this.score1 = expectedScore(elo1);
+        this.lowerBound = Math.log(beta / (1 - alpha));
+        this.upperBound = Math.log((1 - beta) / alpha);
+    }
+
+    /**
+     * Computes the log-likelihood ratio of the results so far.
+     *
+     * @param wins   The number of games won.
+     * @param draws  The number of games drawn.
+     * @param losses The number of games lost.
+     * @return The LLR, or 0 while all results are identical and their variance is still unknown.
+     */
+    public double llr(long wins, long draws, long losses) {
+        long games = wins + draws + losses;
+        if (games < 2) {
+            return 0;
+        }
+        double score = (wins + draws * 0.5) / games;
+        double variance = (wins * Math.pow(1 - score, 2) + draws * Math.pow(0.5 - score, 2) + losses * Math.pow(score, 2)) / games;
+        double varianceOfMean = variance / games;
+        if (varianceOfMean <= 0) {
+            return 0;
+        }
+        return (score1 - score0) * (2 * score - score0 - score1) / (2 * varianceOfMean);
+    }
+
+    /**
+     * Decides whether the results so far are enough to accept either hypothesis.
+     *
+     * @param wins   The number of games won.
+     * @param draws  The number of games drawn.
+     * @param losses The number of games lost.
+     * @return The decision of the test.
+     */
+    public Decision decide(long wins, long draws, long losses) {
+        double llr = llr(wins, draws, losses);
+        if (llr >= upperBound) {
+            return Decision.ACCEPT_H1;
+        }
+        if (llr <= lowerBound) {
+            return Decision.ACCEPT_H0;
+        }
+        return Decision.CONTINUE;
+    }
+
+    /**
+     * Returns the LLR below which H0 is accepted.
+     *
+     * @return The lower bound.
+     */
+    public double getLowerBound() {
+        return lowerBound;
+    }
+
+    /**
+     * Returns the LLR above which H1 is accepted.
+     *
+     * @return The upper bound.
+     */
+    public double getUpperBound() {
+        return upperBound;
+    }
+
+    /**
+     * Converts an Elo difference into the expected score of the stronger side.
+     *
+     * @param elo The Elo difference.
+     * @return The expected score between 0 and 1.
+     */
+    private static double expectedScore(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+}
@@ -0,0 +1,360 @@
+package chessgame;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The class lets a chess GUI or tournament manager drive the game through the UCI protocol.
+ * <p>
+ * Commands are read and handled on a dedicated input thread, while searches run on a separate search
+ * thread. This keeps the input flowing during a search, so {@code stop} and {@code ponderhit} take
+ * effect immediately. The following commands are understood:
+ * - {@code uci}, {@code isready}, {@code ucinewgame} and {@code quit}.
+ * - {@code position startpos [moves ...]} and {@code position fen <fen> [moves ...]}, with moves in
+ *   coordinate notation (see {@link Move}). Of the FEN, only the piece placement and side to move are used.
+ * - {@code go} with {@code wtime}, {@code btime}, {@code winc}, {@code binc}, {@code movestogo},
+ *   {@code movetime}, {@code depth}, {@code nodes}, {@code infinite} and {@code ponder}.
+ * - {@code stop} and {@code ponderhit}.
+ * While searching, an {@code info} line with depth, score, nodes, nps and time is sent after every
+ * finished iteration, and {@code bestmove} once the search ends.
+ * <p>
+ * The game is not standard chess, so a GUI cannot drive it like an ordinary engine:
+ * - The starting position is the one set up by {@link ChessBoard#initializeBoard()}, which has the Kings on
+ *   the d-file and the Queens on the e-file. Standard moves such as "d1h5" for the Queen are invalid here.
+ * - Moves follow the simplified rules of the piece classes: there is no check, castling, en passant or
+ *   promotion, and the game ends when a King is captured. A promotion suffix ("a7a8q") is ignored.
+ * - White (player 1) always moves first in {@code position startpos}.
+ * If a {@code position} command contains a move that cannot be parsed or is not valid, the position is
+ * marked invalid: every {@code go} is answered with an error {@code info string} and {@code bestmove 0000}
+ * until a valid position is set.
+ */
+public class UciEngine {
+    /**
+     * The name the engine reports to the GUI.
+     */
+    private static final String ENGINE_NAME = "SimpleChessGame";
+    /**
+     * The author the engine reports to the GUI.
+     */
+    private static final String ENGINE_AUTHOR = "Alireza Ghaedamini";
+
+    /**
+     * The stream commands are read from.
+     */
+    private final BufferedReader input;
+    /**
+     * The stream responses are written to. Guarded by its own lock, as both threads write to it.
+     */
+    private final PrintStream output;
+    /**
+     * The current position, as set by the last {@code position} command.
+     */
+    private ChessBoard board = new ChessBoard();
+    /**
+     * The player to move in the current position (-1 for black, 1 for white).
+     */
+    private int sideToMove = 1;
+    /**
+     * Whether the last {@code position} command was understood completely. No search runs otherwise.
+     */
+    private boolean positionValid = true;
+    /**
+     * The running search, or null if no search was started yet.
+     */
+    private Search search;
+    /**
+     * The thread running the current search, or null if no search was started yet.
+     */
+    private Thread searchThread;
+
+    /**
+     * Constructs a UCI front end.
+     *
+     * @param input  The stream to read commands from.
+     * @param output The stream to write responses to.
+     */
+    public UciEngine(InputStream input, PrintStream output) {
+        this.input = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        this.output = output;
+    }
+
+    /**
+     * Starts the input thread and waits until it receives {@code quit} or the input ends.
+     *
+     * @throws InterruptedException if the calling thread is interrupted while waiting.
+     */
+    public void run() throws InterruptedException {
+        Thread inputThread = new Thread(this::readCommands, "uci-input");
+        inputThread.start();
+        inputThread.join();
+    }
+
+    /**
+     * Reads and handles commands until {@code quit} or the end of the input.
+     * Runs on the input thread.
+     */
+    private void readCommands() {
+        try {
+            String line;
+            while ((line = input.readLine()) != null) {
+                if (!handleCommand(line.trim())) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            send("info string input failed: " + e.getMessage());
+        }
+        stopSearch();
+    }
+
+    /**
+     * Handles one command line.
+     *
+     * @param line The command line.
+     * @return {@code false} if the engine should quit, {@code true} otherwise.
+     */
+    private boolean handleCommand(String line) {
+        String[] tokens = line.split("\\s+");
+        switch (tokens[0]) {
+            case "uci":
+                send("id name " + ENGINE_NAME);
+                send("id author " + ENGINE_AUTHOR);
+                send("uciok");
+                break;
+            case "isready":
+                send("readyok");
+                break;
+            case "ucinewgame":
+                stopSearch();
+                board = new ChessBoard();
+                sideToMove = 1;
+                positionValid = true;
+                break;
+            case "position":
+                stopSearch();
+                setPosition(tokens);
+                break;
+            case "go":
+                stopSearch();
+                startSearch(tokens);
+                break;
+            case "stop":
+                if (search != null) {
+                    search.stop();
+                }
+                break;
+            case "ponderhit":
+                if (search != null) {
+                    search.ponderHit();
+                }
+                break;
+            case "quit":
+                return false;
+            case "":
+                break;
+            default:
+                send("info string unknown command: " + tokens[0]);
+        }
+        return true;
+    }
+
+    /**
+     * Sets up the position given by a {@code position} command.
+     * If the command cannot be understood completely, the position is marked invalid and no search runs on it.
+     *
+     * @param tokens The tokens of the command.
+     */
+    private void setPosition(String[] tokens) {
+        positionValid = false;
+        int movesStart;
+        if (tokens.length >= 2 && tokens[1].equals("startpos")) {
+            board = new ChessBoard();
+            sideToMove = 1;
+            movesStart = 2;
+        } else if (tokens.length >= 4 && tokens[1].equals("fen")) {
+            ChessBoard fenBoard = new ChessBoard();
+            try {
+                fenBoard.loadPlacement(tokens[2]);
+            } catch (IllegalArgumentException e) {
+                send("info string error: " + e.getMessage());
+                return;
+            }
+            board = fenBoard;
+            sideToMove = tokens[3].equals("b") ? -1 : 1;
+            movesStart = 4;
+            while (movesStart < tokens.length && !tokens[movesStart].equals("moves")) {
+                movesStart++;
+            }
+        } else {
+            send("info string error: expected 'position startpos' or 'position fen'");
+            return;
+        }
+        for (int i = movesStart; i < tokens.length; i++) {
+            if (tokens[i].equals("moves")) {
+                continue;
+            }
+            Move move;
+            try {
+                move = Move.parse(tokens[i]);
+            } catch (IllegalArgumentException e) {
+                send("info string error: " + e.getMessage());
+                return;
+            }
+            if (!board.playMove(move, sideToMove)) {
+                send("info string error: invalid move " + tokens[i]);
+                return;
+            }
+            sideToMove = -sideToMove;
+        }
+        positionValid = true;
+    }
+
+    /**
+     * Starts a search for the limits given by a {@code go} command on a new search thread.
+     * If the current position is invalid, answers at once with {@code bestmove 0000} instead.
+     *
+     * @param tokens The tokens of the command.
+     */
+    private void startSearch(String[] tokens) {
+        if (!positionValid) {
+            send("info string error: no valid position, refusing to search");
+            send("bestmove 0000");
+            return;
+        }
+        SearchLimits limits = parseLimits(tokens);
+        Search newSearch = new Search(new ChessBoard(board), sideToMove, limits, this::sendInfo);
+        search = newSearch;
+        searchThread = new Thread(() -> {
+            SearchResult result = newSearch.run();
+            send("bestmove " + (result.getBestMove() != null ? result.getBestMove() : "0000"));
+        }, "uci-search");
+        searchThread.start();
+    }
+
+    /**
+     * Translates the arguments of a {@code go} command into search limits.
+     * A {@code go} command without any limit searches until {@code stop}.
+     *
+     * @param tokens The tokens of the command.
+     * @return The search limits.
+     */
+    private SearchLimits parseLimits(String[] tokens) {
+        long whiteTime = -1, blackTime = -1, whiteIncrement = 0, blackIncrement = 0, moveTime = -1, nodes = 0;
+        int movesToGo = 0, depth = 0;
+        boolean infinite = false, ponder = false;
+        try {
+            for (int i = 1; i < tokens.length; i++) {
+                switch (tokens[i]) {
+                    case "wtime":
+                        whiteTime = Long.parseLong(tokens[++i]);
+                        break;
+                    case "btime":
+                        blackTime = Long.parseLong(tokens[++i]);
+                        break;
+                    case "winc":
+                        whiteIncrement = Long.parseLong(tokens[++i]);
+                        break;
+                    case "binc":
+                        blackIncrement = Long.parseLong(tokens[++i]);
+                        break;
+                    case "movestogo":
+                        movesToGo = Integer.parseInt(tokens[++i]);
+                        break;
+                    case "movetime":
+                        moveTime = Long.parseLong(tokens[++i]);
+                        break;
+                    case "depth":
+                        depth = Integer.parseInt(tokens[++i]);
+                        break;
+                    case "nodes":
+                        nodes = Long.parseLong(tokens[++i]);
+                        break;
+                    case "infinite":
+                        infinite = true;
+                        break;
+                    case "ponder":
+                        ponder = true;
+                        break;
+                    default:
+                        send("info string ignoring go argument: " + tokens[i]);
+                }
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            send("info string malformed go command");
+        }
+
+        long remaining = sideToMove == 1 ? whiteTime : blackTime;
+        long increment = sideToMove == 1 ? whiteIncrement : blackIncrement;
+        SearchLimits limits;
+        if (infinite) {
+            limits = SearchLimits.infinite();
+        } else if (moveTime >= 0) {
+            limits = SearchLimits.moveTime(moveTime);
+        } else if (remaining >= 0) {
+            limits = SearchLimits.forClock(remaining, increment, movesToGo);
+        } else if (depth > 0 || nodes > 0) {
+            limits = SearchLimits.depth(SearchLimits.MAX_DEPTH);
+        } else {
+            limits = SearchLimits.infinite();
+        }
+        if (depth > 0) {
+            limits = limits.withMaxDepth(depth);
+        }
+        if (nodes > 0) {
+            limits = limits.withMaxNodes(nodes);
+        }
+        return ponder ? limits.withPonder() : limits;
+    }
+
+    /**
+     * Stops the running search, if any, and waits until it has sent its best move.
+     */
+    private void stopSearch() {
+        if (search == null) {
+            return;
+        }
+        search.stop();
+        try {
+            searchThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        search = null;
+        searchThread = null;
+    }
+
+    /**
+     * Sends an {@code info} line describing a finished iteration. Runs on the search thread.
+     *
+     * @param result The result of the iteration.
+     */
+    private void sendInfo(SearchResult result) {
+        int score = result.getScore();
+        String scoreText;
+        if (Math.abs(score) >= Search.MATE_SCORE - SearchLimits.MAX_DEPTH) {
+            int plies = Search.MATE_SCORE - Math.abs(score);
+            scoreText = "mate " + (score > 0 ? (plies + 1) / 2 : -(plies + 1) / 2);
+        } else {
+            scoreText = "cp " + score;
+        }
+        send("info depth " + result.getDepth() + " score " + scoreText + " nodes " + result.getNodes()
+                + " nps " + result.getNodesPerSecond() + " time " + result.getElapsedMillis()
+                + " pv " + result.getBestMove());
+    }
+
+    /**
+     * Writes one line to the output.
+     *
+     * @param line The line to write.
+     */
+    private void send(String line) {
+        synchronized (output) {
+            output.println(line);
+            output.flush();
+        }
+    }
+}
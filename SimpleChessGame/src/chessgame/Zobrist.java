@@ -0,0 +1,64 @@
+package chessgame;
+
+import java.util.SplittableRandom;
+
+/**
+ * The class computes 64-bit Zobrist hashes of positions.
+ * <p>
+ * Every combination of piece type, owner and square gets a fixed random number, and the hash of a position
+ * is the exclusive or of the numbers of all pieces on the board, plus one more number if Player -1 is to move.
+ * The numbers come from a fixed seed, so hashes are the same in every run and can be stored in files.
+ * Changing the seed or the piece order makes every stored hash invalid.
+ */
+public final class Zobrist {
+    /**
+     * The piece symbols in the order of their random numbers.
+     */
+    private static final String PIECE_ORDER = "KQRBNP";
+    /**
+     * The seed of the random numbers.
+     */
+    private static final long SEED = 0x5EED_C4E5_5B0A_4D11L;
+    /**
+     * The random numbers, indexed by piece (Player 1's six types, then Player -1's) and square (y * 8 + x).
+     */
+    private static final long[][] PIECE_KEYS = new long[12][64];
+    /**
+     * The random number added when Player -1 is to move.
+     */
+    private static final long BLACK_TO_MOVE_KEY;
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (long[] keys : PIECE_KEYS) {
+            for (int square = 0; square < 64; square++) {
+                keys[square] = random.nextLong();
+            }
+        }
+        BLACK_TO_MOVE_KEY = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * Computes the hash of a position.
+     *
+     * @param board      The board holding the pieces.
+     * @param sideToMove The player to move (-1 for black, 1 for white).
+     * @return The hash of the position.
+     */
+    public static long hash(ChessBoard board, int sideToMove) {
+        long hash = sideToMove == 1 ? 0 : BLACK_TO_MOVE_KEY;
+        for (int x = 0; x < 8; x++) {
+            for (int y = 0; y < 8; y++) {
+                ChessPiece piece = board.getPiece(x, y);
+                if (piece != null) {
+                    int index = PIECE_ORDER.indexOf(piece.getSymbol()) + (piece.getOwner() == 1 ? 0 : 6);
+                    hash ^= PIECE_KEYS[index][y * 8 + x];
+                }
+            }
+        }
+        return hash;
+    }
+}